@@ -1,18 +1,83 @@
 import os
+import struct
 
 import matplotlib.pyplot as plt
+import numpy as np
 import pandas as pd
 import seaborn as sns
 
+FEATURES_BINARY_MAGIC = 0x53434642  # "SCFB", see FeatureExporter.Format.BINARY
+PREDICTIONS_BINARY_MAGIC = 0x53435042  # "SCPB", see PredictionWriter.Format.BINARY
 
-def load_metrics(csv_path: str) -> pd.DataFrame:
-    """Load metrics CSV produced by the Java pipeline."""
+
+def load_metrics(csv_path: str, latest_run_only: bool = True) -> pd.DataFrame:
+    """Load metrics CSV produced by the Java pipeline, by default only the rows of its latest run."""
     if not os.path.exists(csv_path):
         raise FileNotFoundError(f"Metrics file not found: {csv_path}. Run the Java pipeline first.")
     df = pd.read_csv(csv_path)
+    # Files written by MetricsSink hold every run, tagged with runId; older files have no run columns
+    if latest_run_only and "runId" in df.columns and not df.empty:
+        df = df[df["runId"] == df["runId"].iloc[-1]].reset_index(drop=True)
+    return df
+
+
+def load_features(path: str) -> pd.DataFrame:
+    """Load a feature set exported with --export-features (binary .bin or .csv) as x0..xN plus label."""
+    if path.endswith(".csv"):
+        return pd.read_csv(path)
+    with open(path, "rb") as f:
+        data = f.read()
+    magic, version, rows, cols, name_len = struct.unpack_from("<5i", data, 0)
+    if magic != FEATURES_BINARY_MAGIC or version != 1:
+        raise ValueError(f"Not a feature export (version 1): {path}")
+    offset = 20 + name_len
+    columns = np.frombuffer(data, dtype="<f8", count=rows * cols, offset=offset).reshape(cols, rows)
+    labels = np.frombuffer(data, dtype="<i4", count=rows, offset=offset + rows * cols * 8)
+    df = pd.DataFrame({f"x{j}": columns[j] for j in range(cols)})
+    df["label"] = labels
     return df
 
 
+def load_predictions(path: str) -> pd.DataFrame:
+    """Load batch predictions written with --score (binary .bin or .csv), one row per fixture and model."""
+    if path.endswith(".csv"):
+        return pd.read_csv(path)
+    with open(path, "rb") as f:
+        data = f.read()
+    magic, version, models = struct.unpack_from("<3i", data, 0)
+    if magic != PREDICTIONS_BINARY_MAGIC or version != 1:
+        raise ValueError(f"Not a prediction file (version 1): {path}")
+    offset = 12
+    names = []
+    for _ in range(2 * models):
+        (length,) = struct.unpack_from("<i", data, offset)
+        names.append(data[offset + 4:offset + 4 + length].decode("utf-8"))
+        offset += 4 + length
+    model_types, feature_sets = np.array(names[0::2]), np.array(names[1::2])
+
+    groups = []
+    while True:
+        (rows,) = struct.unpack_from("<i", data, offset)
+        offset += 4
+        if rows == 0:
+            break
+        fixture = np.frombuffer(data, dtype="<i8", count=rows, offset=offset)
+        offset += rows * 8
+        model, label = np.frombuffer(data, dtype="<i4", count=2 * rows, offset=offset).reshape(2, rows)
+        offset += rows * 8
+        values = np.frombuffer(data, dtype="<f8", count=6 * rows, offset=offset).reshape(6, rows)
+        offset += rows * 48
+        groups.append(pd.DataFrame({
+            "fixture": fixture,
+            "modelType": model_types[model],
+            "featureSet": feature_sets[model],
+            "prediction": np.array(["home", "draw", "away"])[label],
+            "pHome": values[0], "pDraw": values[1], "pAway": values[2],
+            "edgeHome": values[3], "edgeDraw": values[4], "edgeAway": values[5],
+        }))
+    return pd.concat(groups, ignore_index=True) if groups else pd.DataFrame()
+
+
 def plot_accuracy(df: pd.DataFrame, output_path: str) -> None:
     """Plot accuracy by model type and feature set."""
     plt.figure(figsize=(10, 6))
@@ -0,0 +1,89 @@
+package com.example.soccer.bench;
+
+import com.example.soccer.db.MatchRecord;
+import com.example.soccer.feature.FeatureBuilder;
+import com.example.soccer.feature.FeatureNormalizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EnhancedCombined feature building and min-max normalization over {@code size} records.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FeatureBenchmark {
+
+    @Param({"1000", "20000", "100000"})
+    int size;
+
+    private List<MatchRecord> records;
+    private double[][] features;
+    private double[] min;
+    private double[] max;
+
+    /**
+     * A fresh copy of the raw features for every call, since normalize rewrites its input.
+     */
+    @State(Scope.Thread)
+    public static class Scratch {
+        double[][] rows;
+
+        @Setup(Level.Invocation)
+        public void copy(FeatureBenchmark benchmark) {
+            if (rows == null) {
+                rows = new double[benchmark.features.length][];
+                for (int i = 0; i < rows.length; i++) {
+                    rows[i] = new double[benchmark.features[i].length];
+                }
+            }
+            for (int i = 0; i < rows.length; i++) {
+                System.arraycopy(benchmark.features[i], 0, rows[i], 0, rows[i].length);
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        records = SyntheticData.records(size, 42L);
+        features = FeatureBuilder.buildEnhancedCombinedFeatures(records);
+        FeatureNormalizer.MinMax minMax = FeatureNormalizer.computeMinMax(features);
+        min = minMax.getMin();
+        max = minMax.getMax();
+    }
+
+    @Benchmark
+    public double[][] buildEnhancedCombinedFeatures() {
+        return FeatureBuilder.buildEnhancedCombinedFeatures(records);
+    }
+
+    @Benchmark
+    public double[][] normalize(Scratch scratch) {
+        FeatureNormalizer.normalize(scratch.rows);
+        return scratch.rows;
+    }
+
+    @Benchmark
+    public void normalizeSingle(Blackhole blackhole) {
+        for (double[] row : features) {
+            blackhole.consume(FeatureNormalizer.normalizeSingle(row, min, max));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.soccer.bench;
+
+import com.example.soccer.model.ClassificationMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Three-class {@link ClassificationMetrics#compute} over {@code size} labels, about half predicted right.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    @Param({"1000", "20000", "100000"})
+    int size;
+
+    private int[] yTrue;
+    private int[] yPred;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(5L);
+        yTrue = new int[size];
+        yPred = new int[size];
+        for (int i = 0; i < size; i++) {
+            yTrue[i] = random.nextInt(3);
+            yPred[i] = random.nextBoolean() ? yTrue[i] : random.nextInt(3);
+        }
+    }
+
+    @Benchmark
+    public ClassificationMetrics compute() {
+        return ClassificationMetrics.compute(yTrue, yPred, 3);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.soccer.bench;
+
+import com.example.soccer.db.MatchRecord;
+import com.example.soccer.feature.FeatureBuilder;
+import com.example.soccer.feature.FeatureNormalizer;
+import com.example.soccer.feature.FeatureSet;
+import com.example.soccer.model.EnsembleModel;
+import com.example.soccer.model.ModelTrainer;
+import com.example.soccer.model.TrainedModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row-by-row {@link TrainedModel#predict} and {@link TrainedModel#predictProba} for every model type,
+ * each trained once per trial on {@value #TRAIN_SIZE} normalized Combined rows (EnhancedCombined holds exact
+ * linear combinations of its columns, which LDA rejects).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PredictBenchmark {
+    private static final int TRAIN_SIZE = 5000;
+    private static final int ENSEMBLE_FOLDS = 3;
+    private static final FeatureSet FEATURE_SET = FeatureSet.COMBINED;
+
+    @Param({"LogisticRegression", "OnlineLogistic", "RandomForest", "GradientBoosting", "LDA", "Ensemble"})
+    String modelType;
+
+    /** Rows scored per call. */
+    @Param({"1000", "20000"})
+    int size;
+
+    private TrainedModel model;
+    private double[][] rows;
+    private final double[] probabilities = new double[3];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<MatchRecord> train = SyntheticData.records(TRAIN_SIZE, 7L);
+        double[][] xTrain = FEATURE_SET.build(train);
+        int[] yTrain = FeatureBuilder.buildLabels(train);
+        FeatureNormalizer.MinMax minMax = FeatureNormalizer.computeMinMax(xTrain);
+        FeatureNormalizer.normalize(xTrain);
+
+        List<MatchRecord> scored = SyntheticData.records(size, 11L);
+        rows = FEATURE_SET.build(scored);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = FeatureNormalizer.normalizeSingle(rows[i], minMax.getMin(), minMax.getMax());
+        }
+
+        // The trainers print their evaluation; keep it out of the benchmark log
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            model = train(modelType, xTrain, yTrain);
+        } finally {
+            System.setOut(out);
+        }
+        if (model == null) {
+            throw new IllegalStateException("Training failed for " + modelType);
+        }
+    }
+
+    private static TrainedModel train(String modelType, double[][] x, int[] y) {
+        String name = FEATURE_SET.getName();
+        switch (modelType) {
+            case "LogisticRegression":
+                return ModelTrainer.trainLogistic(name, x, y, x, y);
+            case "OnlineLogistic":
+                return ModelTrainer.trainOnlineLogistic(name, x, y, x, y);
+            case "RandomForest":
+                return ModelTrainer.trainRandomForest(name, x, y, x, y);
+            case "GradientBoosting":
+                return ModelTrainer.trainGradientBoosting(name, x, y, x, y);
+            case "LDA":
+                return ModelTrainer.trainLDA(name, x, y, x, y);
+            case "Ensemble":
+                List<TrainedModel> bases = Arrays.asList(
+                        ModelTrainer.trainLogistic(name, x, y, x, y),
+                        ModelTrainer.trainRandomForest(name, x, y, x, y),
+                        ModelTrainer.trainLDA(name, x, y, x, y));
+                return ModelTrainer.trainEnsemble(name, bases, EnsembleModel.Method.WEIGHTED, ENSEMBLE_FOLDS,
+                        x, y, x, y);
+            default:
+                throw new IllegalArgumentException("Unknown model type: " + modelType);
+        }
+    }
+
+    @Benchmark
+    public int predict() {
+        int sum = 0;
+        for (double[] row : rows) {
+            sum += model.predict(row);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double predictProba() {
+        double sum = 0;
+        for (double[] row : rows) {
+            sum += model.predictProba(row, probabilities) + probabilities[0];
+        }
+        return sum;
+    }
+}
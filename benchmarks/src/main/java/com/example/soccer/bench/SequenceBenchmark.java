@@ -0,0 +1,56 @@
+package com.example.soccer.bench;
+
+import com.example.soccer.sequence.SequenceMiner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * W/D/L n-gram mining over {@code teams} synthetic team sequences of {@value #MATCHES_PER_TEAM} results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SequenceBenchmark {
+    private static final int MATCHES_PER_TEAM = 300;
+
+    @Param({"100", "1000", "10000"})
+    int teams;
+
+    private Map<Integer, byte[]> sequences;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sequences = SyntheticData.sequences(teams, MATCHES_PER_TEAM, 3L);
+    }
+
+    @Benchmark
+    public Map<String, Integer> mineNGrams() {
+        return SequenceMiner.mineNGrams(sequences, 3);
+    }
+
+    @Benchmark
+    public int[][] countNGramsSequential() {
+        return SequenceMiner.countNGrams(sequences, 3, 5, false);
+    }
+
+    @Benchmark
+    public int[][] countNGramsParallel() {
+        return SequenceMiner.countNGrams(sequences, 3, 5, true);
+    }
+}
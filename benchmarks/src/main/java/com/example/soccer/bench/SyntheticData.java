@@ -0,0 +1,121 @@
+package com.example.soccer.bench;
+
+import com.example.soccer.db.MatchRecord;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Seeded synthetic inputs shaped like the Kaggle data, so the benchmarks run without the database.
+ * Each match draws a home and away strength; odds, attributes, form and outcome all follow the
+ * strength gap, so trained models learn a real signal and take realistic branches.
+ */
+public final class SyntheticData {
+    private static final double BOOKMAKER_MARGIN = 1.05;
+    private static final double HOME_ADVANTAGE = 0.25;
+
+    private SyntheticData() {
+    }
+
+    public static List<MatchRecord> records(int size, long seed) {
+        Random random = new Random(seed);
+        List<MatchRecord> records = new ArrayList<>(size);
+        double[] probabilities = new double[3];
+        for (int i = 0; i < size; i++) {
+            double home = random.nextGaussian();
+            double away = random.nextGaussian();
+            outcomeProbabilities(home - away, probabilities);
+            int outcome = sample(random, probabilities);
+            records.add(new MatchRecord(
+                    outcome,
+                    odds(random, probabilities[0]), odds(random, probabilities[1]), odds(random, probabilities[2]),
+                    attribute(random, home) * 3, attribute(random, home), attribute(random, home),
+                    attribute(random, home), attribute(random, home), attribute(random, home),
+                    goals(random, home), goals(random, -home), 0.6 * (home + random.nextGaussian() * 0.3),
+                    winRate(random, home),
+                    attribute(random, away) * 3, attribute(random, away), attribute(random, away),
+                    attribute(random, away), attribute(random, away), attribute(random, away),
+                    goals(random, away), goals(random, -away), 0.6 * (away + random.nextGaussian() * 0.3),
+                    winRate(random, away),
+                    noisy(random, probabilities), noisy(random, reversed(probabilities))));
+        }
+        return records;
+    }
+
+    /**
+     * W/D/L result sequences of {@code teams} teams with {@code matchesPerTeam} results each.
+     */
+    public static Map<Integer, byte[]> sequences(int teams, int matchesPerTeam, long seed) {
+        Random random = new Random(seed);
+        Map<Integer, byte[]> sequences = new HashMap<>();
+        double[] probabilities = new double[3];
+        for (int team = 0; team < teams; team++) {
+            double strength = random.nextGaussian();
+            byte[] sequence = new byte[matchesPerTeam];
+            for (int i = 0; i < matchesPerTeam; i++) {
+                outcomeProbabilities(strength - random.nextGaussian(), probabilities);
+                sequence[i] = (byte) sample(random, probabilities);
+            }
+            sequences.put(team, sequence);
+        }
+        return sequences;
+    }
+
+    /**
+     * Home win / draw / away win probabilities for a home-minus-away strength gap.
+     */
+    private static void outcomeProbabilities(double gap, double[] out) {
+        double homeWin = Math.exp(HOME_ADVANTAGE + 0.8 * gap);
+        double draw = 1.0;
+        double awayWin = Math.exp(-0.8 * gap);
+        double sum = homeWin + draw + awayWin;
+        out[0] = homeWin / sum;
+        out[1] = draw / sum;
+        out[2] = awayWin / sum;
+    }
+
+    private static int sample(Random random, double[] probabilities) {
+        double u = random.nextDouble();
+        if (u < probabilities[0]) {
+            return 0;
+        }
+        return u < probabilities[0] + probabilities[1] ? 1 : 2;
+    }
+
+    private static double odds(Random random, double probability) {
+        double quoted = probability * Math.exp(random.nextGaussian() * 0.05);
+        return Math.max(1.01, 1.0 / (quoted * BOOKMAKER_MARGIN));
+    }
+
+    private static double attribute(Random random, double strength) {
+        return Math.max(20, Math.min(80, 50 + 10 * strength + random.nextGaussian() * 8));
+    }
+
+    private static double goals(Random random, double strength) {
+        return Math.max(0, 1.4 + 0.4 * strength + random.nextGaussian() * 0.3);
+    }
+
+    private static double winRate(Random random, double strength) {
+        return Math.max(0, Math.min(1, 0.4 + 0.15 * strength + random.nextGaussian() * 0.1));
+    }
+
+    private static double[] reversed(double[] probabilities) {
+        return new double[]{probabilities[2], probabilities[1], probabilities[0]};
+    }
+
+    private static double[] noisy(Random random, double[] probabilities) {
+        double[] out = new double[3];
+        double sum = 0;
+        for (int c = 0; c < 3; c++) {
+            out[c] = probabilities[c] * Math.exp(random.nextGaussian() * 0.2);
+            sum += out[c];
+        }
+        for (int c = 0; c < 3; c++) {
+            out[c] /= sum;
+        }
+        return out;
+    }
+}
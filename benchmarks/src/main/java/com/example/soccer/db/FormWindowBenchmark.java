@@ -0,0 +1,75 @@
+package com.example.soccer.db;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling form window updates as the record builder does them: each of {@code size} results updates
+ * the home and away window and reads the four form averages. Lives in the {@code db} package because
+ * the window class is package-private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormWindowBenchmark {
+    private static final int TEAMS = 300;
+    private static final int WINDOW = 5;
+
+    @Param({"1000", "20000", "100000"})
+    int size;
+
+    private int[] homeTeams;
+    private int[] awayTeams;
+    private int[] homeGoals;
+    private int[] awayGoals;
+    private MatchRecordBuilder.TeamFormWindow[] windows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(9L);
+        homeTeams = new int[size];
+        awayTeams = new int[size];
+        homeGoals = new int[size];
+        awayGoals = new int[size];
+        for (int i = 0; i < size; i++) {
+            homeTeams[i] = random.nextInt(TEAMS);
+            awayTeams[i] = (homeTeams[i] + 1 + random.nextInt(TEAMS - 1)) % TEAMS;
+            homeGoals[i] = random.nextInt(5);
+            awayGoals[i] = random.nextInt(4);
+        }
+        windows = new MatchRecordBuilder.TeamFormWindow[TEAMS];
+        for (int t = 0; t < TEAMS; t++) {
+            windows[t] = new MatchRecordBuilder.TeamFormWindow(WINDOW);
+        }
+    }
+
+    @Benchmark
+    public double updateAndRead() {
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            MatchRecordBuilder.TeamFormWindow home = windows[homeTeams[i]];
+            MatchRecordBuilder.TeamFormWindow away = windows[awayTeams[i]];
+            sum += home.getAvgGoalsFor() + home.getAvgGoalsAgainst() + home.getAvgGoalDiff() + home.getWinRate();
+            sum += away.getAvgGoalsFor() + away.getAvgGoalsAgainst() + away.getAvgGoalDiff() + away.getWinRate();
+            home.addResult(homeGoals[i], awayGoals[i]);
+            away.addResult(awayGoals[i], homeGoals[i]);
+        }
+        return sum;
+    }
+}
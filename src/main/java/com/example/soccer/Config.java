@@ -2,10 +2,27 @@ package com.example.soccer;
 
 public final class Config {
     /**
-     * Absolute or relative path to the Kaggle SQLite database file (database.sqlite).
+     * Absolute or relative path to the Kaggle SQLite database file (database.sqlite), or to a
+     * database written by SyntheticDatabaseGenerator. Overridden by -Dsoccer.db.path=...
      * Example: "/Users/yourname/data/database.sqlite"
      */
-    public static final String SQLITE_DB_PATH = "/Users/huynhngocanhthu/data-mining/database.sqlite";
+    public static final String SQLITE_DB_PATH = System.getProperty("soccer.db.path",
+            "/Users/huynhngocanhthu/data-mining/database.sqlite");
+
+    /**
+     * Directory holding persisted model artifacts (see ModelRegistry).
+     */
+    public static final String MODEL_REGISTRY_DIR = "target/models";
+
+    /**
+     * Maximum number of (model, feature vector) predictions kept by the serving cache.
+     */
+    public static final int PREDICTION_CACHE_SIZE = 10_000;
+
+    /**
+     * Port of the HTTP prediction service (--serve-http). Overridden by -Dsoccer.http.port=...
+     */
+    public static final int HTTP_PORT = Integer.getInteger("soccer.http.port", 8080);
 
     private Config() {
     }
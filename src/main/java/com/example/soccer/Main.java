@@ -2,34 +2,117 @@ package com.example.soccer;
 
 import com.example.soccer.db.MatchRecord;
 import com.example.soccer.db.MatchRepository;
+import com.example.soccer.db.MatchScanBus;
 import com.example.soccer.feature.FeatureBuilder;
 import com.example.soccer.feature.FeatureNormalizer;
+import com.example.soccer.feature.FeatureSet;
+import com.example.soccer.model.EnsembleModel;
+import com.example.soccer.model.ModelArtifact;
+import com.example.soccer.model.ModelRegistry;
 import com.example.soccer.model.ModelTrainer;
+import com.example.soccer.model.PredictionCache;
 import com.example.soccer.model.TrainedModel;
-import com.example.soccer.reporting.MetricsExporter;
+import com.example.soccer.reporting.FeatureExporter;
+import com.example.soccer.reporting.MetricsSink;
+import com.example.soccer.reporting.StageProfiler;
 import com.example.soccer.weka.ArffExporter;
+import com.example.soccer.weka.WekaCrossValidator;
+import com.example.soccer.weka.WekaInstances;
 import com.example.soccer.weka.WekaRunner;
+import com.example.soccer.weka.WekaStreamingEvaluator;
+import com.example.soccer.sequence.PrefixSpanMiner;
 import com.example.soccer.sequence.SequenceMiner;
+import com.example.soccer.sequence.StreamingPatternMonitor;
+import com.example.soccer.serving.BatchScorer;
+import com.example.soccer.serving.PredictionServer;
+import com.example.soccer.serving.PredictionService;
+import weka.core.Instances;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.function.Supplier;
 
 public class Main {
     private static final double DEFAULT_FORM_GOALS = 1.4;
     private static final double DEFAULT_FORM_WIN_RATE = 0.33;
+    private static final String SERVE_REGISTRY_FLAG = "--serve-registry";
+    private static final String SERVE_HTTP_FLAG = "--serve-http";
+    private static final String SCORE_PREFIX = "--score=";
+    private static final String SCORE_TABLE_PREFIX = "--score-table=";
+    private static final String SCORE_OUT_PREFIX = "--score-out=";
+    private static final String DEFAULT_SCORE_OUT = "target/predictions.csv";
+    private static final String EXPORT_ARFF_FLAG = "--export-arff";
+    private static final String STREAM_WEKA_FLAG = "--stream-weka";
+    private static final int STREAM_REPORT_INTERVAL = 5000;
+    private static final String EXPORT_FEATURES_PREFIX = "--export-features=";
+    private static final String FEATURE_EXPORT_DIR = "target/features";
+    private static final FeatureSet WEKA_FEATURE_SET = FeatureSet.COMBINED;
+    private static final int ENSEMBLE_FOLDS = 5;
+    private static final double PATTERN_MIN_SUPPORT = 0.05;
+    private static final int PATTERN_MAX_GAP = 1;
+    private static final int PATTERN_MAX_LENGTH = 4;
+    private static final int SKETCH_CAPACITY = 512;
+    private static final String METRICS_CSV_PATH = "target/metrics.csv";
+    private static final String STAGES_CSV_PATH = "target/stages.csv";
 
     private static List<TrainedModel> trainedModels = new ArrayList<>();
     private static Map<String, FeatureNormalizer.MinMax> normalizationParams = new HashMap<>();
+    private static final PredictionCache predictionCache = new PredictionCache(Config.PREDICTION_CACHE_SIZE);
 
+    // Stage spans are try-with-resources purely for timing; their bodies never reference the span
+    @SuppressWarnings("try")
     public static void main(String[] args) throws SQLException {
         System.out.println("========================================");
         System.out.println("Soccer Match Outcome Prediction - Java");
         System.out.println("========================================");
+
+        if (Arrays.asList(args).contains(SERVE_REGISTRY_FLAG)) {
+            serveFromRegistry();
+            return;
+        }
+        if (Arrays.asList(args).contains(SERVE_HTTP_FLAG)) {
+            serveHttp();
+            return;
+        }
+        String scoreInput = argValue(args, SCORE_PREFIX, null);
+        if (scoreInput != null) {
+            scoreFixtures(scoreInput, argValue(args, SCORE_TABLE_PREFIX, BatchScorer.DEFAULT_TABLE),
+                    argValue(args, SCORE_OUT_PREFIX, DEFAULT_SCORE_OUT));
+            return;
+        }
+
         System.out.println("Using SQLite DB at: " + Config.SQLITE_DB_PATH);
         System.out.println();
 
         MatchRepository repo = new MatchRepository();
-        List<MatchRecord> records = repo.loadMatchesWithOddsAndTeamOverall(20000);
+        StageProfiler profiler = new StageProfiler();
+
+        // Constant-memory online learning over the full match history, straight from the DB cursor
+        if (Arrays.asList(args).contains(STREAM_WEKA_FLAG)) {
+            try {
+                WekaStreamingEvaluator.run(repo, WEKA_FEATURE_SET, -1, STREAM_REPORT_INTERVAL);
+            } catch (Exception e) {
+                System.err.println("Weka streaming evaluation failed: " + e.getMessage());
+            }
+            return;
+        }
+
+        // One pass over Match feeds the records and every sequence analysis below
+        List<MatchRecord> records = new ArrayList<>();
+        SequenceMiner.TeamSequenceCollector teamSequences = new SequenceMiner.TeamSequenceCollector();
+        PrefixSpanMiner.TeamSeasonCollector teamSeasons = new PrefixSpanMiner.TeamSeasonCollector();
+        StreamingPatternMonitor patternMonitor = new StreamingPatternMonitor(3, 5, SKETCH_CAPACITY);
+        long scannedRows;
+        try (StageProfiler.Span stage = profiler.start("Load matches")) {
+            scannedRows = new MatchScanBus()
+                    .register(repo.recordBuilder(20000, records::add))
+                    .register(teamSequences)
+                    .register(teamSeasons)
+                    .register(patternMonitor)
+                    .run();
+        }
+        System.out.println("Scanned matches: " + scannedRows);
         System.out.println("Loaded records: " + records.size());
 
         if (records.size() < 1000) {
@@ -47,65 +130,68 @@ public class Main {
         System.out.println("Test set: " + test.size() + " records");
         System.out.println();
 
-        // Export full dataset (all records) to ARFF for Weka
-        try {
-            String arffPath = "target/soccer_combined.arff";
-            ArffExporter.exportCombinedToArff(records, arffPath);
-            System.out.println("Exported combined features to ARFF: " + arffPath);
-        } catch (Exception e) {
-            System.err.println("Failed to export ARFF file: " + e.getMessage());
+        // Full dataset (all records) for Weka, built in memory; the ARFF file is only written on request
+        Instances wekaData;
+        try (StageProfiler.Span stage = profiler.start("Weka data / ARFF export")) {
+            wekaData = WekaInstances.fromFeatureSet(WEKA_FEATURE_SET, records);
+            if (Arrays.asList(args).contains(EXPORT_ARFF_FLAG)) {
+                try {
+                    String arffPath = "target/soccer_" + WEKA_FEATURE_SET.getName().toLowerCase() + ".arff";
+                    ArffExporter.exportToArff(WEKA_FEATURE_SET, records, arffPath);
+                    System.out.println("Exported " + WEKA_FEATURE_SET.getName() + " features to ARFF: " + arffPath);
+                } catch (Exception e) {
+                    System.err.println("Failed to export ARFF file: " + e.getMessage());
+                }
+            }
+        }
+
+        // Optionally export every feature set over all records, e.g. --export-features=binary
+        for (String arg : args) {
+            if (arg.startsWith(EXPORT_FEATURES_PREFIX)) {
+                try (StageProfiler.Span stage = profiler.start("Feature export")) {
+                    exportFeatureSets(records, arg.substring(EXPORT_FEATURES_PREFIX.length()));
+                }
+            }
         }
 
         // Build all feature sets
         Map<String, double[][]> xTrain = new HashMap<>();
         Map<String, double[][]> xTest = new HashMap<>();
+        int[] yTrain;
+        int[] yTest;
+        Map<String, String> dataFingerprints = new HashMap<>();
+        try (StageProfiler.Span stage = profiler.start("Build features")) {
+            for (FeatureSet featureSet : FeatureSet.values()) {
+                xTrain.put(featureSet.getName(), featureSet.build(train));
+                xTest.put(featureSet.getName(), featureSet.build(test));
+            }
 
-        xTrain.put("Odds", FeatureBuilder.buildOddsFeatures(train));
-        xTest.put("Odds", FeatureBuilder.buildOddsFeatures(test));
-
-        xTrain.put("Team", FeatureBuilder.buildTeamFeatures(train));
-        xTest.put("Team", FeatureBuilder.buildTeamFeatures(test));
-
-        xTrain.put("Aggression", FeatureBuilder.buildAggressionFeatures(train));
-        xTest.put("Aggression", FeatureBuilder.buildAggressionFeatures(test));
-
-        xTrain.put("Passing", FeatureBuilder.buildPassingFeatures(train));
-        xTest.put("Passing", FeatureBuilder.buildPassingFeatures(test));
-
-        xTrain.put("Shooting", FeatureBuilder.buildShootingFeatures(train));
-        xTest.put("Shooting", FeatureBuilder.buildShootingFeatures(test));
-
-        xTrain.put("ComprehensiveTeam", FeatureBuilder.buildComprehensiveTeamFeatures(train));
-        xTest.put("ComprehensiveTeam", FeatureBuilder.buildComprehensiveTeamFeatures(test));
-
-        xTrain.put("Form", FeatureBuilder.buildFormFeatures(train));
-        xTest.put("Form", FeatureBuilder.buildFormFeatures(test));
-
-        xTrain.put("Combined", FeatureBuilder.buildCombinedFeatures(train));
-        xTest.put("Combined", FeatureBuilder.buildCombinedFeatures(test));
-
-        // Enhanced combined features with differences and ratios
-        xTrain.put("EnhancedCombined", FeatureBuilder.buildEnhancedCombinedFeatures(train));
-        xTest.put("EnhancedCombined", FeatureBuilder.buildEnhancedCombinedFeatures(test));
+            yTrain = FeatureBuilder.buildLabels(train);
+            yTest = FeatureBuilder.buildLabels(test);
 
-        int[] yTrain = FeatureBuilder.buildLabels(train);
-        int[] yTest = FeatureBuilder.buildLabels(test);
+            // Fingerprint the raw training data before normalization rewrites it in place
+            for (String featureSet : xTrain.keySet()) {
+                dataFingerprints.put(featureSet, ModelRegistry.fingerprint(xTrain.get(featureSet), yTrain));
+            }
+        }
 
         // Normalize all feature sets (important for model performance)
         System.out.println("Normalizing features...");
-        for (String featureSet : xTrain.keySet()) {
-            // Compute normalization parameters from training set
-            FeatureNormalizer.MinMax minMax = FeatureNormalizer.computeMinMax(xTrain.get(featureSet));
-            normalizationParams.put(featureSet, minMax);
-            
-            // Normalize training and test sets
-            FeatureNormalizer.normalize(xTrain.get(featureSet));
-            // For test set, we need to normalize using training set min/max
-            double[][] xTestRaw = xTest.get(featureSet);
-            for (int i = 0; i < xTestRaw.length; i++) {
-                double[] normalized = FeatureNormalizer.normalizeSingle(
-                        xTestRaw[i], minMax.getMin(), minMax.getMax());
-                System.arraycopy(normalized, 0, xTestRaw[i], 0, normalized.length);
+        try (StageProfiler.Span stage = profiler.start("Normalize")) {
+            for (String featureSet : xTrain.keySet()) {
+                // Compute normalization parameters from training set
+                FeatureNormalizer.MinMax minMax = FeatureNormalizer.computeMinMax(xTrain.get(featureSet));
+                normalizationParams.put(featureSet, minMax);
+
+                // Normalize training and test sets
+                FeatureNormalizer.normalize(xTrain.get(featureSet));
+                // For test set, we need to normalize using training set min/max
+                double[][] xTestRaw = xTest.get(featureSet);
+                for (int i = 0; i < xTestRaw.length; i++) {
+                    double[] normalized = FeatureNormalizer.normalizeSingle(
+                            xTestRaw[i], minMax.getMin(), minMax.getMax());
+                    System.arraycopy(normalized, 0, xTestRaw[i], 0, normalized.length);
+                }
             }
         }
         System.out.println("Feature normalization complete.\n");
@@ -115,69 +201,269 @@ public class Main {
         System.out.println("TRAINING MODELS");
         System.out.println("========================================");
 
-        // Focus on best feature sets: Odds, Combined, EnhancedCombined, Form
-        List<String> keyFeatureSets = Arrays.asList("Odds", "Combined", "EnhancedCombined", "Form");
-        
-        // Logistic Regression on key feature sets
-        for (String featureSet : keyFeatureSets) {
-            TrainedModel model = ModelTrainer.trainLogistic(featureSet,
-                    xTrain.get(featureSet), yTrain, xTest.get(featureSet), yTest);
-            if (model != null) {
-                trainedModels.add(model);
-                MetricsExporter.appendMetrics("target/metrics.csv", model);
+        try (StageProfiler.Span stage = profiler.start("Train models")) {
+            // Rows are written by a background thread, tagged with this run's id
+            MetricsSink metricsSink = new MetricsSink(METRICS_CSV_PATH);
+            System.out.println("Metrics run id: " + metricsSink.getRunId());
+            try {
+                // Focus on best feature sets: Odds, Combined, EnhancedCombined, Form
+                List<String> keyFeatureSets = Arrays.asList("Odds", "Combined", "EnhancedCombined", "Form");
+
+                // Logistic Regression on key feature sets
+                for (String featureSet : keyFeatureSets) {
+                    fitModel(profiler, metricsSink, "LogisticRegression " + featureSet,
+                            () -> ModelTrainer.trainLogistic(
+                                    featureSet, xTrain.get(featureSet), yTrain, xTest.get(featureSet), yTest));
+                }
+
+                // Online (mini-batch Adam) logistic regression on key feature sets
+                for (String featureSet : keyFeatureSets) {
+                    fitModel(profiler, metricsSink, "OnlineLogistic " + featureSet,
+                            () -> ModelTrainer.trainOnlineLogistic(
+                                    featureSet, xTrain.get(featureSet), yTrain, xTest.get(featureSet), yTest));
+                }
+
+                // Also try ComprehensiveTeam and the Markov next-result probabilities
+                for (String featureSet : Arrays.asList("ComprehensiveTeam", "Markov")) {
+                    fitModel(profiler, metricsSink, "LogisticRegression " + featureSet,
+                            () -> ModelTrainer.trainLogistic(
+                                    featureSet, xTrain.get(featureSet), yTrain, xTest.get(featureSet), yTest));
+                }
+
+                // Random Forest on enhanced features
+                for (String featureSet : Arrays.asList("Odds", "Combined", "EnhancedCombined")) {
+                    fitModel(profiler, metricsSink, "RandomForest " + featureSet,
+                            () -> ModelTrainer.trainRandomForest(
+                                    featureSet, xTrain.get(featureSet), yTrain, xTest.get(featureSet), yTest));
+                }
+
+                // Histogram gradient boosting on the same feature sets as the forests
+                for (String featureSet : Arrays.asList("Odds", "Combined", "EnhancedCombined")) {
+                    fitModel(profiler, metricsSink, "GradientBoosting " + featureSet,
+                            () -> ModelTrainer.trainGradientBoosting(
+                                    featureSet, xTrain.get(featureSet), yTrain, xTest.get(featureSet), yTest));
+                }
+
+                // LDA on key feature sets
+                for (String featureSet : keyFeatureSets) {
+                    fitModel(profiler, metricsSink, "LDA " + featureSet,
+                            () -> ModelTrainer.trainLDA(
+                                    featureSet, xTrain.get(featureSet), yTrain, xTest.get(featureSet), yTest));
+                }
+
+                // Weighted soft-voting ensemble over every model trained on the richest feature set
+                List<TrainedModel> ensembleBases = new ArrayList<>();
+                for (TrainedModel trained : trainedModels) {
+                    if (trained.getFeatureSetName().equals("EnhancedCombined")) {
+                        ensembleBases.add(trained);
+                    }
+                }
+                fitModel(profiler, metricsSink, "WeightedEnsemble EnhancedCombined",
+                        () -> ModelTrainer.trainEnsemble(
+                                "EnhancedCombined", ensembleBases, EnsembleModel.Method.WEIGHTED, ENSEMBLE_FOLDS,
+                        xTrain.get("EnhancedCombined"), yTrain, xTest.get("EnhancedCombined"), yTest));
+            } finally {
+                // Flush queued rows and write the run summary even if a fit throws
+                metricsSink.close();
             }
         }
 
-        // Also try ComprehensiveTeam
-        TrainedModel model = ModelTrainer.trainLogistic("ComprehensiveTeam",
-                xTrain.get("ComprehensiveTeam"), yTrain, xTest.get("ComprehensiveTeam"), yTest);
-        if (model != null) {
-            trainedModels.add(model);
-            MetricsExporter.appendMetrics("target/metrics.csv", model);
+        // Summary comparison
+        printModelComparison();
+
+        // Persist models so later runs can serve them without retraining
+        try (StageProfiler.Span stage = profiler.start("Save registry")) {
+            saveModelsToRegistry(dataFingerprints);
         }
 
-        // Random Forest on enhanced features
-        for (String featureSet : Arrays.asList("Odds", "Combined", "EnhancedCombined")) {
-            TrainedModel rfModel = ModelTrainer.trainRandomForest(featureSet,
-                    xTrain.get(featureSet), yTrain, xTest.get(featureSet), yTest);
-            if (rfModel != null) {
-                trainedModels.add(rfModel);
-                MetricsExporter.appendMetrics("target/metrics.csv", rfModel);
+        // Weka classifiers (J48, NaiveBayes, SMO, Logistic, RandomForest) with parallel 10-fold CV
+        try (StageProfiler.Span stage = profiler.start("Weka cross-validation")) {
+            List<WekaCrossValidator.Result> wekaResults = WekaRunner.compareClassifiers(
+                    WEKA_FEATURE_SET.getName(), wekaData, WekaRunner.defaultClassifiers());
+            for (WekaCrossValidator.Result result : wekaResults) {
+                if (result.getName().equals("RandomForest")) {
+                    WekaRunner.printEvaluation("WEKA RANDOM FOREST (" + WEKA_FEATURE_SET.getName()
+                            + ", 10-fold CV)", result.getEvaluation());
+                }
             }
+        } catch (Exception e) {
+            System.err.println("Weka evaluation failed: " + e.getMessage());
         }
 
-        // LDA on key feature sets
-        for (String featureSet : keyFeatureSets) {
-            TrainedModel ldaModel = ModelTrainer.trainLDA(featureSet,
-                    xTrain.get(featureSet), yTrain, xTest.get(featureSet), yTest);
-            if (ldaModel != null) {
-                trainedModels.add(ldaModel);
-                MetricsExporter.appendMetrics("target/metrics.csv", ldaModel);
-            }
+        // Sequence mining: frequent patterns of W/D/L per team
+        try (StageProfiler.Span stage = profiler.start("Sequence mining")) {
+            SequenceMiner.printTopPatterns(teamSequences.getSequences(), 3, 3, 10);
+
+            // Fixed-memory global and per-league pattern sketches, fed match by match
+            patternMonitor.printTopPatterns(5);
+
+            // Gapped patterns over outcome x venue x margin events per team-season, with the next result
+            PrefixSpanMiner.printFrequentPatterns(teamSeasons.getSequences(), PATTERN_MIN_SUPPORT, PATTERN_MAX_GAP,
+                    PATTERN_MAX_LENGTH, 15);
         }
 
-        // Summary comparison
+        // Where the time, CPU and allocation went, per stage and per model fit
+        profiler.printBreakdown();
+        try {
+            profiler.exportCsv(STAGES_CSV_PATH);
+        } catch (IOException e) {
+            System.err.println("Failed to export stage breakdown: " + e.getMessage());
+        }
+
+        // Interactive mode
+        interactiveMode();
+    }
+
+    /**
+     * Train one model inside its own profiler span; a model that trained is kept for serving and its
+     * metrics are queued with the fit's wall time.
+     */
+    private static void fitModel(StageProfiler profiler, MetricsSink metricsSink, String name,
+                                 Supplier<TrainedModel> trainer) {
+        StageProfiler.Span fit = profiler.start(name);
+        TrainedModel model;
+        try (fit) {
+            model = trainer.get();
+        }
+        if (model != null) {
+            trainedModels.add(model);
+            metricsSink.submit(model, fit.getWallNanos());
+        }
+    }
+
+    /**
+     * Load previously trained models and their normalization parameters from the
+     * registry and go straight to interactive mode, without touching SQLite.
+     */
+    private static void serveFromRegistry() {
+        if (!loadRegistry()) {
+            return;
+        }
         printModelComparison();
+        interactiveMode();
+    }
 
-        // Weka RandomForest with 10-fold CV on combined features
+    /**
+     * Load the registry models and answer JSON prediction requests over HTTP until the process is stopped.
+     */
+    private static void serveHttp() {
+        if (!loadRegistry()) {
+            return;
+        }
+        PredictionService service = new PredictionService(trainedModels, normalizationParams, predictionCache);
         try {
-            WekaRunner.runRandomForestOnCombined("target/soccer_combined.arff");
-        } catch (Exception e) {
-            System.err.println("Weka RandomForest failed: " + e.getMessage());
+            PredictionServer server = new PredictionServer(service, Config.HTTP_PORT);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+            server.start();
+        } catch (IOException e) {
+            System.err.println("Failed to start prediction service on port " + Config.HTTP_PORT + ": " + e.getMessage());
         }
+    }
 
-        // Sequence mining: frequent patterns of W/D/L per team
+    /**
+     * Score a fixture file (CSV, or a table of a SQLite database) with every registry model into a
+     * prediction file (binary if it ends in .bin, CSV otherwise) and report the throughput.
+     */
+    private static void scoreFixtures(String inputPath, String table, String outputPath) {
+        if (!loadRegistry()) {
+            return;
+        }
+        System.out.println("Scoring fixtures from " + inputPath + " into " + outputPath);
         try {
-            SequenceMiner.printTopPatterns(3, 10);
+            BatchScorer scorer = new BatchScorer(trainedModels, normalizationParams, BatchScorer.DEFAULT_CHUNK_SIZE);
+            scorer.score(inputPath, table, outputPath).print();
         } catch (Exception e) {
-            System.err.println("Sequence mining failed: " + e.getMessage());
+            System.err.println("Batch scoring failed: " + e.getMessage());
         }
+    }
 
-        // Interactive mode
-        System.out.println("\n========================================");
-        System.out.println("INTERACTIVE PREDICTION MODE");
-        System.out.println("========================================");
-        interactiveMode();
+    /**
+     * Value of the first {@code prefix=value} argument, or {@code defaultValue} if there is none.
+     */
+    private static String argValue(String[] args, String prefix, String defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Fill the model list and normalization parameters from the registry; false if there is nothing to serve.
+     */
+    private static boolean loadRegistry() {
+        System.out.println("Serving models from registry: " + Config.MODEL_REGISTRY_DIR);
+        long start = System.nanoTime();
+        List<ModelArtifact> artifacts;
+        try {
+            artifacts = ModelRegistry.loadAll(Config.MODEL_REGISTRY_DIR);
+        } catch (IOException e) {
+            System.err.println("Failed to read model registry: " + e.getMessage());
+            return false;
+        }
+        if (artifacts.isEmpty()) {
+            System.err.println("No models found in registry. Run the training pipeline first.");
+            return false;
+        }
+
+        for (ModelArtifact artifact : artifacts) {
+            // Registries written before non-servable models were skipped may still hold them
+            if (!FeatureSet.fromName(artifact.getFeatureSetName()).isServable()) {
+                System.out.println("Skipping " + artifact.getModelType() + " (" + artifact.getFeatureSetName()
+                        + "): its features need match history that a fixture cannot supply");
+                continue;
+            }
+            trainedModels.add(artifact.toTrainedModel());
+            normalizationParams.put(artifact.getFeatureSetName(), artifact.getNormalization());
+        }
+        if (trainedModels.isEmpty()) {
+            System.err.println("No servable models found in registry. Run the training pipeline first.");
+            return false;
+        }
+        System.out.printf("Loaded %d models in %.1f ms%n", trainedModels.size(), (System.nanoTime() - start) / 1e6);
+        return true;
+    }
+
+    private static void exportFeatureSets(List<MatchRecord> records, String formatName) {
+        try {
+            FeatureExporter.Format format = FeatureExporter.Format.fromName(formatName);
+            long start = System.nanoTime();
+            for (FeatureSet featureSet : FeatureSet.values()) {
+                FeatureExporter.export(featureSet, records, format,
+                        FEATURE_EXPORT_DIR + "/" + featureSet.getName() + format.getExtension());
+            }
+            System.out.printf("Exported %d feature sets as %s to %s in %.1f ms%n", FeatureSet.values().length,
+                    format, FEATURE_EXPORT_DIR, (System.nanoTime() - start) / 1e6);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown export format: " + formatName + " (use arff, arff_gz, csv or binary)");
+        } catch (IOException e) {
+            System.err.println("Failed to export feature sets: " + e.getMessage());
+        }
+    }
+
+    private static void saveModelsToRegistry(Map<String, String> dataFingerprints) {
+        int saved = 0;
+        for (TrainedModel model : trainedModels) {
+            String featureSet = model.getFeatureSetName();
+            if (!FeatureSet.fromName(featureSet).isServable()) {
+                System.out.println("Not saving " + model.getModelType() + " (" + featureSet
+                        + "): its features need match history that a fixture cannot supply");
+                continue;
+            }
+            ModelArtifact artifact = new ModelArtifact(model,
+                    FeatureSet.fromName(featureSet).getFeatureCount(),
+                    normalizationParams.get(featureSet),
+                    dataFingerprints.get(featureSet));
+            try {
+                ModelRegistry.save(Config.MODEL_REGISTRY_DIR, artifact);
+                saved++;
+            } catch (IOException e) {
+                System.err.println("Failed to save " + model.getModelType() + " ("
+                        + featureSet + ") to registry: " + e.getMessage());
+            }
+        }
+        System.out.println("\nSaved " + saved + " models to registry: " + Config.MODEL_REGISTRY_DIR);
     }
 
     private static void printModelComparison() {
@@ -199,6 +485,10 @@ public class Main {
     }
 
     private static void interactiveMode() {
+        System.out.println("\n========================================");
+        System.out.println("INTERACTIVE PREDICTION MODE");
+        System.out.println("========================================");
+
         Scanner scanner = new Scanner(System.in);
         String[] outcomes = {"Home Win", "Draw", "Away Win"};
 
@@ -210,6 +500,7 @@ public class Main {
                 System.out.print("Enter home team odds (e.g., 2.5): ");
                 String input = scanner.nextLine().trim();
                 if (input.equalsIgnoreCase("quit")) {
+                    predictionCache.printStats();
                     System.out.println("Exiting interactive mode. Goodbye!");
                     break;
                 }
@@ -301,45 +592,17 @@ public class Main {
 
                 for (TrainedModel model : trainedModels) {
                     try {
-                        double[] features;
                         String featureSet = model.getFeatureSetName();
-                        switch (featureSet) {
-                            case "Odds":
-                                features = FeatureBuilder.buildOddsFeaturesSingle(match);
-                                break;
-                            case "Team":
-                                features = FeatureBuilder.buildTeamFeaturesSingle(match);
-                                break;
-                            case "Aggression":
-                                features = FeatureBuilder.buildAggressionFeaturesSingle(match);
-                                break;
-                            case "Passing":
-                                features = FeatureBuilder.buildPassingFeaturesSingle(match);
-                                break;
-                            case "Shooting":
-                                features = FeatureBuilder.buildShootingFeaturesSingle(match);
-                                break;
-                            case "ComprehensiveTeam":
-                                features = FeatureBuilder.buildComprehensiveTeamFeaturesSingle(match);
-                                break;
-                            case "Combined":
-                                features = FeatureBuilder.buildCombinedFeaturesSingle(match);
-                                break;
-                            case "Form":
-                                features = FeatureBuilder.buildFormFeaturesSingle(match);
-                                break;
-                            case "EnhancedCombined":
-                                features = FeatureBuilder.buildEnhancedCombinedFeaturesSingle(match);
-                                break;
-                            default:
-                                continue;
+                        if (!FeatureSet.fromName(featureSet).isServable()) {
+                            continue;
                         }
+                        double[] features = FeatureSet.fromName(featureSet).buildSingle(match);
                         // Normalize features using training set parameters
                         if (normalizationParams.containsKey(featureSet)) {
                             FeatureNormalizer.MinMax minMax = normalizationParams.get(featureSet);
                             features = FeatureNormalizer.normalizeSingle(features, minMax.getMin(), minMax.getMax());
                         }
-                        int prediction = model.predict(features);
+                        int prediction = predictionCache.predict(model, features);
                         System.out.printf("%-25s %-20s %15s%n",
                                 model.getModelType(),
                                 model.getFeatureSetName(),
@@ -1,6 +1,8 @@
 package com.example.soccer.db;
 
 public class MatchRecord {
+    private static final double[] UNIFORM = {1.0 / 3, 1.0 / 3, 1.0 / 3};
+
     // Label: 0 = home win, 1 = draw, 2 = away win
     private final int outcome;
 
@@ -33,6 +35,17 @@ public class MatchRecord {
     private final double awayRecentGoalDiff;
     private final double awayRecentWinRate;
 
+    // Markov model probabilities of each team's next result (W/D/L from that team's perspective)
+    private final double homeMarkovWin;
+    private final double homeMarkovDraw;
+    private final double homeMarkovLoss;
+    private final double awayMarkovWin;
+    private final double awayMarkovDraw;
+    private final double awayMarkovLoss;
+
+    /**
+     * Record without Markov history (e.g. a match entered by hand): next-result probabilities are uniform.
+     */
     public MatchRecord(int outcome,
                        double homeOdds, double drawOdds, double awayOdds,
                        double homeTeamOverall, double homeAggression, double homePassing,
@@ -43,6 +56,25 @@ public class MatchRecord {
                        double awayShooting, double awayDefence, double awayBuildUpSpeed,
                        double awayRecentGoalsFor, double awayRecentGoalsAgainst,
                        double awayRecentGoalDiff, double awayRecentWinRate) {
+        this(outcome, homeOdds, drawOdds, awayOdds,
+                homeTeamOverall, homeAggression, homePassing, homeShooting, homeDefence, homeBuildUpSpeed,
+                homeRecentGoalsFor, homeRecentGoalsAgainst, homeRecentGoalDiff, homeRecentWinRate,
+                awayTeamOverall, awayAggression, awayPassing, awayShooting, awayDefence, awayBuildUpSpeed,
+                awayRecentGoalsFor, awayRecentGoalsAgainst, awayRecentGoalDiff, awayRecentWinRate,
+                UNIFORM, UNIFORM);
+    }
+
+    public MatchRecord(int outcome,
+                       double homeOdds, double drawOdds, double awayOdds,
+                       double homeTeamOverall, double homeAggression, double homePassing,
+                       double homeShooting, double homeDefence, double homeBuildUpSpeed,
+                       double homeRecentGoalsFor, double homeRecentGoalsAgainst,
+                       double homeRecentGoalDiff, double homeRecentWinRate,
+                       double awayTeamOverall, double awayAggression, double awayPassing,
+                       double awayShooting, double awayDefence, double awayBuildUpSpeed,
+                       double awayRecentGoalsFor, double awayRecentGoalsAgainst,
+                       double awayRecentGoalDiff, double awayRecentWinRate,
+                       double[] homeMarkov, double[] awayMarkov) {
         this.outcome = outcome;
         this.homeOdds = homeOdds;
         this.drawOdds = drawOdds;
@@ -67,6 +99,12 @@ public class MatchRecord {
         this.awayRecentGoalsAgainst = awayRecentGoalsAgainst;
         this.awayRecentGoalDiff = awayRecentGoalDiff;
         this.awayRecentWinRate = awayRecentWinRate;
+        this.homeMarkovWin = homeMarkov[0];
+        this.homeMarkovDraw = homeMarkov[1];
+        this.homeMarkovLoss = homeMarkov[2];
+        this.awayMarkovWin = awayMarkov[0];
+        this.awayMarkovDraw = awayMarkov[1];
+        this.awayMarkovLoss = awayMarkov[2];
     }
 
     public int getOutcome() {
@@ -156,6 +194,23 @@ public class MatchRecord {
     public double getAwayRecentWinRate() {
         return awayRecentWinRate;
     }
-}
-
 
+    public double getHomeMarkovWin() {
+        return homeMarkovWin;
+    }
+    public double getHomeMarkovDraw() {
+        return homeMarkovDraw;
+    }
+    public double getHomeMarkovLoss() {
+        return homeMarkovLoss;
+    }
+    public double getAwayMarkovWin() {
+        return awayMarkovWin;
+    }
+    public double getAwayMarkovDraw() {
+        return awayMarkovDraw;
+    }
+    public double getAwayMarkovLoss() {
+        return awayMarkovLoss;
+    }
+}
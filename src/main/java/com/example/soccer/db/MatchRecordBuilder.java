@@ -0,0 +1,230 @@
+package com.example.soccer.db;
+
+import com.example.soccer.sequence.MarkovTransitionModel;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Scan stage turning {@code Match} rows into {@link MatchRecord}s: joins the team attributes,
+ * and keeps the rolling form windows and the Markov model up to date in the same pass.
+ * As the original SQL join did, a match is emitted once per pair of home and away
+ * {@code Team_Attributes} snapshots, and only if it has Bet365 odds.
+ */
+final class MatchRecordBuilder implements MatchScanConsumer {
+
+    private static final double DEFAULT_GOALS_FOR = 1.4;
+    private static final double DEFAULT_GOALS_AGAINST = 1.4;
+    private static final double DEFAULT_WIN_RATE = 0.33;
+    private static final int FORM_WINDOW = 5;
+    private static final int MARKOV_ORDER = 2;
+    private static final double MARKOV_SMOOTHING = 5.0;
+
+    private final int limit;
+    private final Consumer<MatchRecord> consumer;
+    private final Map<Integer, List<double[]>> teamAttributes = new HashMap<>();
+    private final Map<Integer, TeamFormWindow> formStats = new HashMap<>();
+    private final MarkovTransitionModel markov = new MarkovTransitionModel(MARKOV_ORDER, MARKOV_SMOOTHING);
+    // Results of the current match day, learned only once the date moves on (see applyPending)
+    private final Map<Integer, int[]> pendingResults = new LinkedHashMap<>();
+    private String currentDate;
+    private long emitted;
+
+    /**
+     * @param limit maximum number of records, or a negative value for all of them
+     */
+    MatchRecordBuilder(int limit, Consumer<MatchRecord> consumer) {
+        this.limit = limit;
+        this.consumer = consumer;
+    }
+
+    @Override
+    public void start(Connection connection) throws SQLException {
+        String sql = """
+                SELECT
+                    team_api_id,
+                    (buildUpPlaySpeed + chanceCreationPassing + defencePressure) AS overall,
+                    COALESCE(defenceAggression, 50.0) AS aggression,
+                    COALESCE(chanceCreationPassing, 50.0) AS passing,
+                    COALESCE(chanceCreationShooting, 50.0) AS shooting,
+                    COALESCE(defencePressure, 50.0) AS defence,
+                    COALESCE(buildUpPlaySpeed, 50.0) AS buildUpSpeed
+                FROM Team_Attributes
+                WHERE buildUpPlaySpeed IS NOT NULL
+                ORDER BY id
+                """;
+
+        try (PreparedStatement ps = connection.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                // overall, aggression, passing, shooting, defence, buildUpSpeed
+                double[] attributes = new double[6];
+                for (int i = 0; i < attributes.length; i++) {
+                    attributes[i] = rs.getDouble(i + 2);
+                }
+                teamAttributes.computeIfAbsent(rs.getInt(1), id -> new ArrayList<>()).add(attributes);
+            }
+        }
+    }
+
+    @Override
+    public void accept(MatchRow row) {
+        if (!row.hasOdds()) {
+            return;
+        }
+        List<double[]> homeSnapshots = teamAttributes.get(row.getHomeTeamId());
+        List<double[]> awaySnapshots = teamAttributes.get(row.getAwayTeamId());
+        if (homeSnapshots == null || awaySnapshots == null) {
+            return;
+        }
+        if (!row.getDate().equals(currentDate)) {
+            applyPending(markov, pendingResults);
+            currentDate = row.getDate();
+        }
+
+        int homeTeamId = row.getHomeTeamId();
+        int awayTeamId = row.getAwayTeamId();
+        int homeGoals = row.getHomeGoals();
+        int awayGoals = row.getAwayGoals();
+        int outcome = row.getOutcome();
+        TeamFormWindow homeForm = formStats.computeIfAbsent(
+                homeTeamId, id -> new TeamFormWindow(FORM_WINDOW));
+        TeamFormWindow awayForm = formStats.computeIfAbsent(
+                awayTeamId, id -> new TeamFormWindow(FORM_WINDOW));
+
+        double[] homeMarkov = new double[3];
+        double[] awayMarkov = new double[3];
+        markov.predict(row.getLeagueId(), homeTeamId, homeMarkov);
+        markov.predict(row.getLeagueId(), awayTeamId, awayMarkov);
+
+        for (double[] home : homeSnapshots) {
+            for (double[] away : awaySnapshots) {
+                if (isDone()) {
+                    return;
+                }
+                consumer.accept(new MatchRecord(
+                        outcome,
+                        row.getHomeOdds(), row.getDrawOdds(), row.getAwayOdds(),
+                        home[0], home[1], home[2],
+                        home[3], home[4], home[5],
+                        homeForm.getAvgGoalsFor(), homeForm.getAvgGoalsAgainst(),
+                        homeForm.getAvgGoalDiff(), homeForm.getWinRate(),
+                        away[0], away[1], away[2],
+                        away[3], away[4], away[5],
+                        awayForm.getAvgGoalsFor(), awayForm.getAvgGoalsAgainst(),
+                        awayForm.getAvgGoalDiff(), awayForm.getWinRate(),
+                        homeMarkov, awayMarkov
+                ));
+                emitted++;
+
+                // Update form stats with current match result (once per emitted row, as before)
+                homeForm.addResult(homeGoals, awayGoals);
+                awayForm.addResult(awayGoals, homeGoals);
+            }
+        }
+        pendingResults.putIfAbsent(row.getId(), new int[]{row.getLeagueId(), homeTeamId, awayTeamId, outcome});
+    }
+
+    @Override
+    public boolean isDone() {
+        return limit >= 0 && emitted >= limit;
+    }
+
+    /**
+     * Feed the buffered results of one match day to the Markov model. Deferring them to the end
+     * of the day keeps every row of a match (the attribute join can repeat it) on the same
+     * pre-match state, and learns each match exactly once.
+     */
+    private static void applyPending(MarkovTransitionModel markov, Map<Integer, int[]> pendingResults) {
+        for (int[] result : pendingResults.values()) {
+            int outcome = result[3];
+            // Outcome 0/1/2 is home win/draw/away win, i.e. W/D/L for the home team and L/D/W for the away team
+            markov.record(result[0], result[1], outcome);
+            markov.record(result[0], result[2], 2 - outcome);
+        }
+        pendingResults.clear();
+    }
+
+    // Package-private so the benchmarks module can drive the window updates directly
+    static final class TeamFormWindow {
+        private final int windowSize;
+        private final ArrayDeque<MatchResult> history = new ArrayDeque<>();
+        private double sumGoalsFor = 0.0;
+        private double sumGoalsAgainst = 0.0;
+        private double sumWinScore = 0.0;
+
+        TeamFormWindow(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        void addResult(int goalsFor, int goalsAgainst) {
+            MatchResult result = new MatchResult(goalsFor, goalsAgainst);
+            history.addLast(result);
+            sumGoalsFor += goalsFor;
+            sumGoalsAgainst += goalsAgainst;
+            sumWinScore += result.winScore;
+
+            if (history.size() > windowSize) {
+                MatchResult removed = history.removeFirst();
+                sumGoalsFor -= removed.goalsFor;
+                sumGoalsAgainst -= removed.goalsAgainst;
+                sumWinScore -= removed.winScore;
+            }
+        }
+
+        double getAvgGoalsFor() {
+            if (history.isEmpty()) {
+                return DEFAULT_GOALS_FOR;
+            }
+            return sumGoalsFor / history.size();
+        }
+
+        double getAvgGoalsAgainst() {
+            if (history.isEmpty()) {
+                return DEFAULT_GOALS_AGAINST;
+            }
+            return sumGoalsAgainst / history.size();
+        }
+
+        double getAvgGoalDiff() {
+            if (history.isEmpty()) {
+                return 0.0;
+            }
+            return (sumGoalsFor - sumGoalsAgainst) / history.size();
+        }
+
+        double getWinRate() {
+            if (history.isEmpty()) {
+                return DEFAULT_WIN_RATE;
+            }
+            return sumWinScore / history.size();
+        }
+    }
+
+    private static final class MatchResult {
+        private final int goalsFor;
+        private final int goalsAgainst;
+        private final double winScore;
+
+        private MatchResult(int goalsFor, int goalsAgainst) {
+            this.goalsFor = goalsFor;
+            this.goalsAgainst = goalsAgainst;
+            if (goalsFor > goalsAgainst) {
+                this.winScore = 1.0;
+            } else if (goalsFor == goalsAgainst) {
+                this.winScore = 0.5;
+            } else {
+                this.winScore = 0.0;
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.soccer.db;
+
+/**
+ * One row of the {@code Match} table as read by {@link MatchScanBus}.
+ * Missing Bet365 odds are NaN.
+ */
+public final class MatchRow {
+    private final int id;
+    private final int leagueId;
+    private final String season;
+    private final String date;
+    private final int homeTeamId;
+    private final int awayTeamId;
+    private final int homeGoals;
+    private final int awayGoals;
+    private final double homeOdds;
+    private final double drawOdds;
+    private final double awayOdds;
+
+    public MatchRow(int id, int leagueId, String season, String date,
+                    int homeTeamId, int awayTeamId, int homeGoals, int awayGoals,
+                    double homeOdds, double drawOdds, double awayOdds) {
+        this.id = id;
+        this.leagueId = leagueId;
+        this.season = season;
+        this.date = date;
+        this.homeTeamId = homeTeamId;
+        this.awayTeamId = awayTeamId;
+        this.homeGoals = homeGoals;
+        this.awayGoals = awayGoals;
+        this.homeOdds = homeOdds;
+        this.drawOdds = drawOdds;
+        this.awayOdds = awayOdds;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getLeagueId() {
+        return leagueId;
+    }
+
+    public String getSeason() {
+        return season;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public int getHomeTeamId() {
+        return homeTeamId;
+    }
+
+    public int getAwayTeamId() {
+        return awayTeamId;
+    }
+
+    public int getHomeGoals() {
+        return homeGoals;
+    }
+
+    public int getAwayGoals() {
+        return awayGoals;
+    }
+
+    public double getHomeOdds() {
+        return homeOdds;
+    }
+
+    public double getDrawOdds() {
+        return drawOdds;
+    }
+
+    public double getAwayOdds() {
+        return awayOdds;
+    }
+
+    public boolean hasOdds() {
+        return !Double.isNaN(homeOdds) && !Double.isNaN(drawOdds) && !Double.isNaN(awayOdds);
+    }
+
+    /**
+     * 0 = home win, 1 = draw, 2 = away win (the MatchRecord label).
+     */
+    public int getOutcome() {
+        if (homeGoals > awayGoals) {
+            return 0;
+        }
+        return homeGoals == awayGoals ? 1 : 2;
+    }
+}
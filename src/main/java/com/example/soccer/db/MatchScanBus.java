@@ -0,0 +1,84 @@
+package com.example.soccer.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the {@code Match} table once, in date order, and hands every row to each registered
+ * {@link MatchScanConsumer} in registration order. Attaching another stage (record building,
+ * sequence collection, ratings, monitors) adds no further scan of the table.
+ */
+public final class MatchScanBus {
+    private final List<MatchScanConsumer> consumers = new ArrayList<>();
+
+    public MatchScanBus register(MatchScanConsumer consumer) {
+        consumers.add(consumer);
+        return this;
+    }
+
+    /**
+     * Run the scan and return the number of rows read.
+     */
+    public long run() throws SQLException {
+        String sql = """
+                SELECT
+                    id,
+                    league_id,
+                    season,
+                    date,
+                    home_team_api_id,
+                    away_team_api_id,
+                    home_team_goal,
+                    away_team_goal,
+                    B365H,
+                    B365D,
+                    B365A
+                FROM Match
+                ORDER BY date, id
+                """;
+
+        long rows = 0;
+        try (Connection conn = SQLiteConnectionFactory.getConnection()) {
+            for (MatchScanConsumer consumer : consumers) {
+                consumer.start(conn);
+            }
+            try (PreparedStatement ps = conn.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery()) {
+                while (!allDone() && rs.next()) {
+                    MatchRow row = new MatchRow(
+                            rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getString(4),
+                            rs.getInt(5), rs.getInt(6), rs.getInt(7), rs.getInt(8),
+                            getOdds(rs, 9), getOdds(rs, 10), getOdds(rs, 11));
+                    for (MatchScanConsumer consumer : consumers) {
+                        if (!consumer.isDone()) {
+                            consumer.accept(row);
+                        }
+                    }
+                    rows++;
+                }
+            }
+        }
+        for (MatchScanConsumer consumer : consumers) {
+            consumer.finish();
+        }
+        return rows;
+    }
+
+    private boolean allDone() {
+        for (MatchScanConsumer consumer : consumers) {
+            if (!consumer.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double getOdds(ResultSet rs, int column) throws SQLException {
+        double odds = rs.getDouble(column);
+        return rs.wasNull() ? Double.NaN : odds;
+    }
+}
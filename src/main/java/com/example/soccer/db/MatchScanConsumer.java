@@ -0,0 +1,31 @@
+package com.example.soccer.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A stage fed by {@link MatchScanBus}, receiving every {@code Match} row in date order.
+ */
+public interface MatchScanConsumer {
+
+    /**
+     * Called once before the first row, on the bus's connection, e.g. to load side tables.
+     */
+    default void start(Connection connection) throws SQLException {
+    }
+
+    void accept(MatchRow row);
+
+    /**
+     * True once this consumer needs no more rows; the scan stops early when every consumer is done.
+     */
+    default boolean isDone() {
+        return false;
+    }
+
+    /**
+     * Called once after the last row.
+     */
+    default void finish() {
+    }
+}
@@ -0,0 +1,504 @@
+package com.example.soccer.db;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Random;
+
+/**
+ * Writes a SQLite database with the Kaggle European Soccer Database layout ({@code Country},
+ * {@code League}, {@code Team}, {@code Team_Attributes}, {@code Match} and optionally {@code Player}
+ * and {@code Player_Attributes}), so the pipeline can be run and stress-tested without the real data.
+ * <p>
+ * At scale 1 there are as many leagues, seasons and teams as in the Kaggle file (about 27k matches);
+ * scale multiplies the number of leagues, so per-team histories keep their realistic length.
+ * Every team has a latent strength that drifts between seasons. Goals are Poisson around it, which
+ * gives Kaggle-like home/draw/away rates; bookmaker odds come from a noisy estimate of the same model
+ * plus a margin, and attributes are noisy functions of strength. The same seed and scale always
+ * produce the same database.
+ * <pre>
+ * mvn exec:java -Dexec.mainClass="com.example.soccer.db.SyntheticDatabaseGenerator" \
+ *   -Dexec.args="target/synthetic.sqlite --scale=10 --seed=42 --players"
+ * </pre>
+ */
+public final class SyntheticDatabaseGenerator {
+    private static final int BASE_LEAGUES = 11;
+    private static final int MIN_TEAMS = 16;
+    private static final int MAX_TEAMS = 20;
+    private static final int FIRST_SEASON = 2008;
+    private static final int SEASONS = 8;
+    private static final String[] ATTRIBUTE_DATES = {
+            "2010-02-22", "2011-02-22", "2012-02-22", "2013-09-20", "2014-09-19", "2015-09-10"
+    };
+    // Kaggle only has dribbling ratings from the 2014 snapshots on
+    private static final int FIRST_DRIBBLING_SNAPSHOT = 4;
+    private static final int SQUAD_SIZE = 25;
+    private static final int LINEUP_SIZE = 11;
+    private static final int FIRST_TEAM_API_ID = 10_000;
+    private static final int FIRST_PLAYER_API_ID = 100_000;
+
+    private static final double HOME_GOALS = 1.45;
+    private static final double AWAY_GOALS = 1.10;
+    private static final double STRENGTH_EFFECT = 0.30;
+    private static final double STRENGTH_DRIFT = 0.25;
+    private static final double STRENGTH_REVERSION = 0.9;
+    private static final double BOOKMAKER_NOISE = 0.15;
+    private static final double MISSING_ODDS_RATE = 0.12;
+    private static final int MAX_GOALS = 10;
+    private static final int BATCH_SIZE = 10_000;
+
+    private static final String SCALE_PREFIX = "--scale=";
+    private static final String SEED_PREFIX = "--seed=";
+    private static final String PLAYERS_FLAG = "--players";
+    private static final String OVERWRITE_FLAG = "--overwrite";
+
+    private final Random random;
+    private final boolean players;
+    private final double[] homeGoalProbabilities = new double[MAX_GOALS + 1];
+    private final double[] awayGoalProbabilities = new double[MAX_GOALS + 1];
+    private PreparedStatement matchInsert;
+    private PreparedStatement teamInsert;
+    private PreparedStatement teamAttributesInsert;
+    private PreparedStatement playerInsert;
+    private PreparedStatement playerAttributesInsert;
+    private long matches;
+    private long teams;
+    private long teamAttributes;
+    private long playerRows;
+    private long playerAttributes;
+
+    private SyntheticDatabaseGenerator(long seed, boolean players) {
+        this.random = new Random(seed);
+        this.players = players;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0 || args[0].startsWith("--")) {
+            System.err.println("Usage: SyntheticDatabaseGenerator <output.sqlite> [--scale=N] [--seed=S] [--players] [--overwrite]");
+            return;
+        }
+        String path = args[0];
+        double scale = 1.0;
+        long seed = 42L;
+        boolean withPlayers = false;
+        boolean overwrite = false;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith(SCALE_PREFIX)) {
+                scale = Double.parseDouble(arg.substring(SCALE_PREFIX.length()));
+            } else if (arg.startsWith(SEED_PREFIX)) {
+                seed = Long.parseLong(arg.substring(SEED_PREFIX.length()));
+            } else if (arg.equals(PLAYERS_FLAG)) {
+                withPlayers = true;
+            } else if (arg.equals(OVERWRITE_FLAG)) {
+                overwrite = true;
+            } else {
+                System.err.println("Unknown argument: " + arg);
+                return;
+            }
+        }
+
+        File file = new File(path);
+        if (file.exists()) {
+            if (!overwrite) {
+                System.err.println(path + " already exists; pass " + OVERWRITE_FLAG + " to replace it.");
+                return;
+            }
+            if (!file.delete()) {
+                System.err.println("Could not delete " + path);
+                return;
+            }
+        }
+        try {
+            generate(path, scale, seed, withPlayers);
+        } catch (SQLException e) {
+            System.err.println("Failed to generate synthetic database: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Generate a database at {@code path} (which must not hold the tables yet) and return the number of matches.
+     *
+     * @param scale multiple of the Kaggle size; fractions give smaller databases, down to a single league
+     */
+    public static long generate(String path, double scale, long seed, boolean players) throws SQLException {
+        if (scale <= 0) {
+            throw new IllegalArgumentException("Scale must be positive");
+        }
+        int leagues = Math.max(1, (int) Math.round(BASE_LEAGUES * scale));
+        long start = System.nanoTime();
+        SyntheticDatabaseGenerator generator = new SyntheticDatabaseGenerator(seed, players);
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + path)) {
+            try (Statement st = conn.createStatement()) {
+                // A half-written file is simply regenerated, so trade durability for load speed
+                st.execute("PRAGMA journal_mode = OFF");
+                st.execute("PRAGMA synchronous = OFF");
+            }
+            generator.createSchema(conn);
+            conn.setAutoCommit(false);
+            generator.prepare(conn);
+            for (int league = 1; league <= leagues; league++) {
+                generator.generateLeague(conn, league);
+            }
+            generator.flush();
+            conn.commit();
+            conn.setAutoCommit(true);
+            try (Statement st = conn.createStatement()) {
+                // Serves the date-ordered scan of MatchScanBus
+                st.execute("CREATE INDEX Match_date_id ON Match (date, id)");
+                st.execute("CREATE INDEX Team_Attributes_team ON Team_Attributes (team_api_id)");
+            }
+            generator.close();
+        }
+        System.out.printf("Generated %s (scale %s, seed %d): %d leagues, %d teams, %d team attribute rows, "
+                        + "%d matches%s in %.1f s%n",
+                path, scale, seed, leagues, generator.teams, generator.teamAttributes, generator.matches,
+                players ? ", " + generator.playerRows + " players, " + generator.playerAttributes
+                        + " player attribute rows" : "",
+                (System.nanoTime() - start) / 1e9);
+        return generator.matches;
+    }
+
+    private void createSchema(Connection conn) throws SQLException {
+        StringBuilder lineups = new StringBuilder();
+        if (players) {
+            for (String side : new String[]{"home", "away"}) {
+                for (int i = 1; i <= LINEUP_SIZE; i++) {
+                    lineups.append(", ").append(side).append("_player_").append(i).append(" INTEGER");
+                }
+            }
+        }
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE Country (id INTEGER PRIMARY KEY, name TEXT UNIQUE)");
+            st.execute("CREATE TABLE League (id INTEGER PRIMARY KEY, country_id INTEGER, name TEXT UNIQUE)");
+            st.execute("CREATE TABLE Team (id INTEGER PRIMARY KEY, team_api_id INTEGER UNIQUE, "
+                    + "team_fifa_api_id INTEGER, team_long_name TEXT, team_short_name TEXT)");
+            st.execute("CREATE TABLE Team_Attributes (id INTEGER PRIMARY KEY, team_fifa_api_id INTEGER, "
+                    + "team_api_id INTEGER, date TEXT, "
+                    + "buildUpPlaySpeed INTEGER, buildUpPlayDribbling INTEGER, buildUpPlayPassing INTEGER, "
+                    + "chanceCreationPassing INTEGER, chanceCreationCrossing INTEGER, chanceCreationShooting INTEGER, "
+                    + "defencePressure INTEGER, defenceAggression INTEGER, defenceTeamWidth INTEGER)");
+            st.execute("CREATE TABLE Match (id INTEGER PRIMARY KEY, country_id INTEGER, league_id INTEGER, "
+                    + "season TEXT, stage INTEGER, date TEXT, match_api_id INTEGER UNIQUE, "
+                    + "home_team_api_id INTEGER, away_team_api_id INTEGER, "
+                    + "home_team_goal INTEGER, away_team_goal INTEGER" + lineups + ", "
+                    + "B365H NUMERIC, B365D NUMERIC, B365A NUMERIC, BWH NUMERIC, BWD NUMERIC, BWA NUMERIC)");
+            if (players) {
+                st.execute("CREATE TABLE Player (id INTEGER PRIMARY KEY, player_api_id INTEGER UNIQUE, "
+                        + "player_name TEXT, player_fifa_api_id INTEGER UNIQUE, birthday TEXT, "
+                        + "height INTEGER, weight INTEGER)");
+                st.execute("CREATE TABLE Player_Attributes (id INTEGER PRIMARY KEY, player_fifa_api_id INTEGER, "
+                        + "player_api_id INTEGER, date TEXT, overall_rating INTEGER, potential INTEGER, "
+                        + "preferred_foot TEXT, crossing INTEGER, finishing INTEGER, short_passing INTEGER, "
+                        + "dribbling INTEGER, ball_control INTEGER, acceleration INTEGER, sprint_speed INTEGER, "
+                        + "stamina INTEGER, strength INTEGER, standing_tackle INTEGER, gk_reflexes INTEGER)");
+            }
+        }
+    }
+
+    private void prepare(Connection conn) throws SQLException {
+        StringBuilder columns = new StringBuilder("id, country_id, league_id, season, stage, date, match_api_id, "
+                + "home_team_api_id, away_team_api_id, home_team_goal, away_team_goal");
+        int parameters = 11;
+        if (players) {
+            for (String side : new String[]{"home", "away"}) {
+                for (int i = 1; i <= LINEUP_SIZE; i++) {
+                    columns.append(", ").append(side).append("_player_").append(i);
+                    parameters++;
+                }
+            }
+        }
+        columns.append(", B365H, B365D, B365A, BWH, BWD, BWA");
+        parameters += 6;
+        matchInsert = conn.prepareStatement("INSERT INTO Match (" + columns + ") VALUES ("
+                + "?, ".repeat(parameters - 1) + "?)");
+        teamInsert = conn.prepareStatement("INSERT INTO Team VALUES (?, ?, ?, ?, ?)");
+        teamAttributesInsert = conn.prepareStatement("INSERT INTO Team_Attributes VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        if (players) {
+            playerInsert = conn.prepareStatement("INSERT INTO Player VALUES (?, ?, ?, ?, ?, ?, ?)");
+            playerAttributesInsert = conn.prepareStatement("INSERT INTO Player_Attributes VALUES ("
+                    + "?, ".repeat(17) + "?)");
+        }
+    }
+
+    private void generateLeague(Connection conn, int league) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO Country VALUES (" + league + ", 'Country " + league + "')");
+            st.execute("INSERT INTO League VALUES (" + league + ", " + league + ", 'Synthetic League " + league + "')");
+        }
+
+        int teamCount = MIN_TEAMS + 2 * random.nextInt((MAX_TEAMS - MIN_TEAMS) / 2 + 1);
+        int[] teamIds = new int[teamCount];
+        double[][] strength = new double[SEASONS][teamCount];
+        int[][] squads = players ? new int[teamCount][SQUAD_SIZE] : null;
+        for (int t = 0; t < teamCount; t++) {
+            teamIds[t] = FIRST_TEAM_API_ID + (int) teams;
+            teams++;
+            double s = random.nextGaussian();
+            for (int season = 0; season < SEASONS; season++) {
+                strength[season][t] = s;
+                s = STRENGTH_REVERSION * s + random.nextGaussian() * STRENGTH_DRIFT;
+            }
+            insertTeam(teamIds[t], league, t);
+            for (int snapshot = 0; snapshot < ATTRIBUTE_DATES.length; snapshot++) {
+                insertTeamAttributes(teamIds[t], snapshot, strength[Math.min(SEASONS - 1, snapshot + 1)][t]);
+            }
+            if (players) {
+                for (int p = 0; p < SQUAD_SIZE; p++) {
+                    squads[t][p] = insertPlayer(strength[0][t]);
+                }
+            }
+        }
+
+        int rounds = 2 * (teamCount - 1);
+        for (int season = 0; season < SEASONS; season++) {
+            String seasonName = (FIRST_SEASON + season) + "/" + (FIRST_SEASON + season + 1);
+            // Double round robin (circle method), one round per week from mid-August
+            int[] order = new int[teamCount];
+            for (int i = 0; i < teamCount; i++) {
+                order[i] = i;
+            }
+            shuffle(order);
+            for (int round = 0; round < rounds; round++) {
+                String date = roundDate(FIRST_SEASON + season, round);
+                int r = round % (teamCount - 1);
+                for (int pair = 0; pair < teamCount / 2; pair++) {
+                    int a = pair == 0 ? order[0] : order[1 + (r + pair - 1) % (teamCount - 1)];
+                    int b = order[1 + (r + teamCount - 2 - pair) % (teamCount - 1)];
+                    boolean swap = (round >= teamCount - 1) ^ ((pair + r) % 2 == 0);
+                    int home = swap ? b : a;
+                    int away = swap ? a : b;
+                    insertMatch(league, seasonName, round + 1, date, teamIds[home], teamIds[away],
+                            strength[season][home], strength[season][away],
+                            players ? squads[home] : null, players ? squads[away] : null);
+                }
+            }
+        }
+        executeBatches(false);
+    }
+
+    private void insertTeam(int teamApiId, int league, int index) throws SQLException {
+        teamInsert.setLong(1, teams);
+        teamInsert.setInt(2, teamApiId);
+        teamInsert.setInt(3, teamApiId);
+        teamInsert.setString(4, "Synthetic " + league + "-" + (index + 1));
+        teamInsert.setString(5, "S" + league + "T" + (index + 1));
+        teamInsert.addBatch();
+    }
+
+    private void insertTeamAttributes(int teamApiId, int snapshot, double strength) throws SQLException {
+        teamAttributes++;
+        int c = 1;
+        teamAttributesInsert.setLong(c++, teamAttributes);
+        teamAttributesInsert.setInt(c++, teamApiId);
+        teamAttributesInsert.setInt(c++, teamApiId);
+        teamAttributesInsert.setString(c++, ATTRIBUTE_DATES[snapshot] + " 00:00:00");
+        teamAttributesInsert.setInt(c++, rating(52 + 4 * strength, 11));
+        if (snapshot >= FIRST_DRIBBLING_SNAPSHOT) {
+            teamAttributesInsert.setInt(c++, rating(48 + 3 * strength, 9));
+        } else {
+            teamAttributesInsert.setNull(c++, Types.INTEGER);
+        }
+        teamAttributesInsert.setInt(c++, rating(48 - 2 * strength, 10));
+        teamAttributesInsert.setInt(c++, rating(52 + 5 * strength, 10));
+        teamAttributesInsert.setInt(c++, rating(53 + 2 * strength, 11));
+        teamAttributesInsert.setInt(c++, rating(53 + 5 * strength, 10));
+        teamAttributesInsert.setInt(c++, rating(46 + 5 * strength, 10));
+        teamAttributesInsert.setInt(c++, rating(49 + 3 * strength, 9));
+        teamAttributesInsert.setInt(c, rating(52 + 2 * strength, 9));
+        teamAttributesInsert.addBatch();
+    }
+
+    private int insertPlayer(double teamStrength) throws SQLException {
+        playerRows++;
+        int playerApiId = FIRST_PLAYER_API_ID + (int) playerRows;
+        playerInsert.setLong(1, playerRows);
+        playerInsert.setInt(2, playerApiId);
+        playerInsert.setString(3, "Player " + playerRows);
+        playerInsert.setInt(4, playerApiId);
+        playerInsert.setString(5, (1975 + random.nextInt(22)) + "-0" + (1 + random.nextInt(9)) + "-1"
+                + random.nextInt(10) + " 00:00:00");
+        playerInsert.setInt(6, (int) Math.round(182 + random.nextGaussian() * 6.5));
+        playerInsert.setInt(7, (int) Math.round(168 + random.nextGaussian() * 15));
+        playerInsert.addBatch();
+
+        double ability = teamStrength + random.nextGaussian() * 0.8;
+        boolean goalkeeper = random.nextInt(SQUAD_SIZE) < 3;
+        for (int snapshot = 0; snapshot < ATTRIBUTE_DATES.length; snapshot++) {
+            playerAttributes++;
+            int overall = rating(69 + 5 * ability, 3);
+            int c = 1;
+            playerAttributesInsert.setLong(c++, playerAttributes);
+            playerAttributesInsert.setInt(c++, playerApiId);
+            playerAttributesInsert.setInt(c++, playerApiId);
+            playerAttributesInsert.setString(c++, ATTRIBUTE_DATES[snapshot] + " 00:00:00");
+            playerAttributesInsert.setInt(c++, overall);
+            playerAttributesInsert.setInt(c++, Math.min(99, overall + random.nextInt(8)));
+            playerAttributesInsert.setString(c++, random.nextInt(4) == 0 ? "left" : "right");
+            for (int skill = 0; skill < 10; skill++) {
+                playerAttributesInsert.setInt(c++, goalkeeper ? rating(25, 8) : rating(overall - 8, 12));
+            }
+            playerAttributesInsert.setInt(c, goalkeeper ? rating(overall + 2, 3) : rating(10, 3));
+            playerAttributesInsert.addBatch();
+            ability += random.nextGaussian() * 0.1;
+        }
+        return playerApiId;
+    }
+
+    private void insertMatch(int league, String season, int stage, String date, int homeTeamApiId,
+                             int awayTeamApiId, double homeStrength, double awayStrength,
+                             int[] homeSquad, int[] awaySquad) throws SQLException {
+        matches++;
+        double gap = homeStrength - awayStrength;
+        int homeGoals = poisson(HOME_GOALS * Math.exp(STRENGTH_EFFECT * gap));
+        int awayGoals = poisson(AWAY_GOALS * Math.exp(-STRENGTH_EFFECT * gap));
+
+        int c = 1;
+        matchInsert.setLong(c++, matches);
+        matchInsert.setInt(c++, league);
+        matchInsert.setInt(c++, league);
+        matchInsert.setString(c++, season);
+        matchInsert.setInt(c++, stage);
+        matchInsert.setString(c++, date);
+        matchInsert.setLong(c++, 1_000_000L + matches);
+        matchInsert.setInt(c++, homeTeamApiId);
+        matchInsert.setInt(c++, awayTeamApiId);
+        matchInsert.setInt(c++, homeGoals);
+        matchInsert.setInt(c++, awayGoals);
+        if (players) {
+            c = setLineup(c, homeSquad);
+            c = setLineup(c, awaySquad);
+        }
+        boolean missingOdds = random.nextDouble() < MISSING_ODDS_RATE;
+        for (int bookmaker = 0; bookmaker < 2; bookmaker++) {
+            if (missingOdds) {
+                for (int k = 0; k < 3; k++) {
+                    matchInsert.setNull(c++, Types.NUMERIC);
+                }
+                continue;
+            }
+            double[] odds = odds(gap + random.nextGaussian() * BOOKMAKER_NOISE, 0.04 + 0.04 * random.nextDouble());
+            for (double price : odds) {
+                matchInsert.setDouble(c++, price);
+            }
+        }
+        matchInsert.addBatch();
+        if (matches % BATCH_SIZE == 0) {
+            executeBatches(true);
+        }
+    }
+
+    private int setLineup(int column, int[] squad) throws SQLException {
+        // Partial shuffle picks 11 distinct players of the squad
+        for (int i = 0; i < LINEUP_SIZE; i++) {
+            int j = i + random.nextInt(squad.length - i);
+            int tmp = squad[i];
+            squad[i] = squad[j];
+            squad[j] = tmp;
+            matchInsert.setInt(column++, squad[i]);
+        }
+        return column;
+    }
+
+    /**
+     * Decimal home/draw/away odds priced from the Poisson goal model for an estimated strength gap.
+     */
+    private double[] odds(double estimatedGap, double margin) {
+        poissonProbabilities(HOME_GOALS * Math.exp(STRENGTH_EFFECT * estimatedGap), homeGoalProbabilities);
+        poissonProbabilities(AWAY_GOALS * Math.exp(-STRENGTH_EFFECT * estimatedGap), awayGoalProbabilities);
+        double homeWin = 0;
+        double draw = 0;
+        for (int h = 0; h <= MAX_GOALS; h++) {
+            double cumulativeAway = 0;
+            for (int a = 0; a < h; a++) {
+                cumulativeAway += awayGoalProbabilities[a];
+            }
+            homeWin += homeGoalProbabilities[h] * cumulativeAway;
+            draw += homeGoalProbabilities[h] * awayGoalProbabilities[h];
+        }
+        double awayWin = Math.max(0, 1 - homeWin - draw);
+        return new double[]{price(homeWin, margin), price(draw, margin), price(awayWin, margin)};
+    }
+
+    private static double price(double probability, double margin) {
+        double odds = 1.0 / (probability * (1 + margin));
+        return Math.max(1.01, Math.round(odds * 100) / 100.0);
+    }
+
+    private static void poissonProbabilities(double lambda, double[] out) {
+        double p = Math.exp(-lambda);
+        for (int k = 0; k < out.length; k++) {
+            out[k] = p;
+            p *= lambda / (k + 1);
+        }
+    }
+
+    private int poisson(double lambda) {
+        double limit = Math.exp(-lambda);
+        double product = random.nextDouble();
+        int k = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            k++;
+        }
+        return k;
+    }
+
+    private int rating(double mean, double spread) {
+        return (int) Math.max(20, Math.min(80, Math.round(mean + random.nextGaussian() * spread)));
+    }
+
+    private void shuffle(int[] values) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    /**
+     * Saturday of the given round: weekly from the first Saturday on or after 16 August, with a
+     * winter break after round 19.
+     */
+    private static String roundDate(int seasonStartYear, int round) {
+        LocalDate date = LocalDate.of(seasonStartYear, 8, 16)
+                .with(TemporalAdjusters.nextOrSame(DayOfWeek.SATURDAY))
+                .plusWeeks(round + (round >= 19 ? 2 : 0));
+        return date + " 00:00:00";
+    }
+
+    private void executeBatches(boolean matchesOnly) throws SQLException {
+        matchInsert.executeBatch();
+        if (matchesOnly) {
+            return;
+        }
+        teamInsert.executeBatch();
+        teamAttributesInsert.executeBatch();
+        if (players) {
+            playerInsert.executeBatch();
+            playerAttributesInsert.executeBatch();
+        }
+    }
+
+    private void flush() throws SQLException {
+        executeBatches(false);
+    }
+
+    private void close() throws SQLException {
+        matchInsert.close();
+        teamInsert.close();
+        teamAttributesInsert.close();
+        if (players) {
+            playerInsert.close();
+            playerAttributesInsert.close();
+        }
+    }
+}
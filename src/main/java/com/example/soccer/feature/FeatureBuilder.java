@@ -119,6 +119,17 @@ public final class FeatureBuilder {
         return x;
     }
 
+    /**
+     * Markov model probabilities of the next W/D/L for the home team and the away team.
+     */
+    public static double[][] buildMarkovFeatures(List<MatchRecord> records) {
+        double[][] x = new double[records.size()][];
+        for (int i = 0; i < records.size(); i++) {
+            x[i] = buildMarkovFeaturesSingle(records.get(i));
+        }
+        return x;
+    }
+
     /**
      * Combined features: odds + team attributes + form stats (23 features).
      */
@@ -286,6 +297,17 @@ public final class FeatureBuilder {
         };
     }
 
+    public static double[] buildMarkovFeaturesSingle(MatchRecord record) {
+        return new double[]{
+                record.getHomeMarkovWin(),
+                record.getHomeMarkovDraw(),
+                record.getHomeMarkovLoss(),
+                record.getAwayMarkovWin(),
+                record.getAwayMarkovDraw(),
+                record.getAwayMarkovLoss()
+        };
+    }
+
     public static double[] buildCombinedFeaturesSingle(MatchRecord record) {
         double[] features = new double[23];
         features[0] = record.getHomeOdds();
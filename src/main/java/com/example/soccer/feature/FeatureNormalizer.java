@@ -1,5 +1,7 @@
 package com.example.soccer.feature;
 
+import java.io.Serializable;
+
 public class FeatureNormalizer {
     
     /**
@@ -84,7 +86,9 @@ public class FeatureNormalizer {
         return new MinMax(min, max);
     }
     
-    public static class MinMax {
+    public static class MinMax implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         private final double[] min;
         private final double[] max;
         
@@ -0,0 +1,84 @@
+package com.example.soccer.feature;
+
+import com.example.soccer.db.MatchRecord;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Named feature sets with their batch and single-record builders.
+ * The name is the key used for trained models, normalization parameters and exports.
+ */
+public enum FeatureSet {
+    ODDS("Odds", 3,
+            FeatureBuilder::buildOddsFeatures, FeatureBuilder::buildOddsFeaturesSingle),
+    TEAM("Team", 2,
+            FeatureBuilder::buildTeamFeatures, FeatureBuilder::buildTeamFeaturesSingle),
+    AGGRESSION("Aggression", 2,
+            FeatureBuilder::buildAggressionFeatures, FeatureBuilder::buildAggressionFeaturesSingle),
+    PASSING("Passing", 2,
+            FeatureBuilder::buildPassingFeatures, FeatureBuilder::buildPassingFeaturesSingle),
+    SHOOTING("Shooting", 2,
+            FeatureBuilder::buildShootingFeatures, FeatureBuilder::buildShootingFeaturesSingle),
+    COMPREHENSIVE_TEAM("ComprehensiveTeam", 12,
+            FeatureBuilder::buildComprehensiveTeamFeatures, FeatureBuilder::buildComprehensiveTeamFeaturesSingle),
+    FORM("Form", 8,
+            FeatureBuilder::buildFormFeatures, FeatureBuilder::buildFormFeaturesSingle),
+    MARKOV("Markov", 6,
+            FeatureBuilder::buildMarkovFeatures, FeatureBuilder::buildMarkovFeaturesSingle),
+    COMBINED("Combined", 23,
+            FeatureBuilder::buildCombinedFeatures, FeatureBuilder::buildCombinedFeaturesSingle),
+    ENHANCED_COMBINED("EnhancedCombined", 40,
+            FeatureBuilder::buildEnhancedCombinedFeatures, FeatureBuilder::buildEnhancedCombinedFeaturesSingle);
+
+    private final String name;
+    private final int featureCount;
+    private final Function<List<MatchRecord>, double[][]> batchBuilder;
+    private final Function<MatchRecord, double[]> singleBuilder;
+
+    FeatureSet(String name, int featureCount,
+               Function<List<MatchRecord>, double[][]> batchBuilder,
+               Function<MatchRecord, double[]> singleBuilder) {
+        this.name = name;
+        this.featureCount = featureCount;
+        this.batchBuilder = batchBuilder;
+        this.singleBuilder = singleBuilder;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getFeatureCount() {
+        return featureCount;
+    }
+
+    /**
+     * Whether the features can be built for a fixture entered by hand or read from a fixture file.
+     * Markov probabilities come from each team's result history in the loader pass, which a lone
+     * fixture does not carry (it would always get the uniform default), so those models are not served.
+     */
+    public boolean isServable() {
+        return this != MARKOV;
+    }
+
+    public double[][] build(List<MatchRecord> records) {
+        return batchBuilder.apply(records);
+    }
+
+    public double[] buildSingle(MatchRecord record) {
+        return singleBuilder.apply(record);
+    }
+
+    /**
+     * Look up a feature set by its display name (e.g. "EnhancedCombined").
+     */
+    public static FeatureSet fromName(String name) {
+        for (FeatureSet featureSet : values()) {
+            if (featureSet.name.equals(name)) {
+                return featureSet;
+            }
+        }
+        throw new IllegalArgumentException("Unknown feature set: " + name);
+    }
+}
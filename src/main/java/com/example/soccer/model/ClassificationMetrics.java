@@ -1,6 +1,10 @@
 package com.example.soccer.model;
 
-public class ClassificationMetrics {
+import java.io.Serializable;
+
+public class ClassificationMetrics implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final double accuracy;
     private final double[][] confusionMatrix;
     private final double[] precision;
@@ -64,48 +68,35 @@ public class ClassificationMetrics {
         System.out.println();
     }
 
+    /**
+     * Single pass over stored labels; see {@link MetricsAccumulator} for streaming use.
+     */
     public static ClassificationMetrics compute(int[] yTrue, int[] yPred, int numClasses) {
-        String[] classNames = {"Home Win", "Draw", "Away Win"};
-        double[][] confusionMatrix = new double[numClasses][numClasses];
-        int[] truePositives = new int[numClasses];
-        int[] falsePositives = new int[numClasses];
-        int[] falseNegatives = new int[numClasses];
-
-        // Build confusion matrix
-        for (int i = 0; i < yTrue.length; i++) {
-            confusionMatrix[yTrue[i]][yPred[i]]++;
-            if (yTrue[i] == yPred[i]) {
-                truePositives[yTrue[i]]++;
-            } else {
-                falseNegatives[yTrue[i]]++;
-                falsePositives[yPred[i]]++;
+        String[] classNames = MetricsAccumulator.OUTCOME_CLASS_NAMES;
+        if (numClasses != classNames.length) {
+            classNames = new String[numClasses];
+            for (int c = 0; c < numClasses; c++) {
+                classNames[c] = "Class " + c;
             }
         }
-
-        // Calculate accuracy
-        int correct = 0;
+        MetricsAccumulator accumulator = new MetricsAccumulator(classNames);
         for (int i = 0; i < yTrue.length; i++) {
-            if (yTrue[i] == yPred[i]) correct++;
+            accumulator.add(yTrue[i], yPred[i]);
         }
-        double accuracy = (double) correct / yTrue.length;
-
-        // Calculate precision, recall, F1
-        double[] precision = new double[numClasses];
-        double[] recall = new double[numClasses];
-        double[] f1Score = new double[numClasses];
-
-        for (int i = 0; i < numClasses; i++) {
-            double tp = truePositives[i];
-            double fp = falsePositives[i];
-            double fn = falseNegatives[i];
+        return accumulator.toMetrics();
+    }
 
-            precision[i] = (tp + fp > 0) ? tp / (tp + fp) : 0.0;
-            recall[i] = (tp + fn > 0) ? tp / (tp + fn) : 0.0;
-            f1Score[i] = (precision[i] + recall[i] > 0) ?
-                    2 * precision[i] * recall[i] / (precision[i] + recall[i]) : 0.0;
+    /**
+     * Mean multiclass log-loss of predicted class probabilities, clipped away from zero.
+     */
+    public static double logLoss(int[] yTrue, double[][] probabilities) {
+        double eps = 1e-15;
+        double sum = 0.0;
+        for (int i = 0; i < yTrue.length; i++) {
+            double p = Math.min(1.0 - eps, Math.max(eps, probabilities[i][yTrue[i]]));
+            sum -= Math.log(p);
         }
-
-        return new ClassificationMetrics(accuracy, confusionMatrix, precision, recall, f1Score, classNames);
+        return sum / yTrue.length;
     }
 }
 
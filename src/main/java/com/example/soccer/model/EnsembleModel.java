@@ -0,0 +1,189 @@
+package com.example.soccer.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Combines several trained models on the same feature set into one answer.
+ * Base probabilities are either averaged with fixed weights (equal or learned on
+ * out-of-fold predictions) or fed to a stacked logistic meta-learner.
+ * Batch scoring runs the base models in parallel, so a batch costs roughly the
+ * latency of the slowest base model rather than the sum of all of them.
+ */
+public class EnsembleModel implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Method {
+        /** Plain probability average. */
+        AVERAGE,
+        /** Probability average with simplex weights minimizing out-of-fold log-loss. */
+        WEIGHTED,
+        /** Logistic meta-learner over the concatenated out-of-fold base probabilities. */
+        STACKED
+    }
+
+    private static final int WEIGHT_ITERATIONS = 500;
+    private static final double WEIGHT_STEP = 0.5;
+
+    private final TrainedModel[] bases;
+    private final Method method;
+    private final double[] weights;
+    private final OnlineLogisticRegression metaLearner;
+    private final int numClasses;
+
+    private EnsembleModel(TrainedModel[] bases, Method method, double[] weights,
+                          OnlineLogisticRegression metaLearner) {
+        this.bases = bases;
+        this.method = method;
+        this.weights = weights;
+        this.metaLearner = metaLearner;
+        this.numClasses = bases[0].numClasses();
+    }
+
+    public static EnsembleModel average(List<TrainedModel> bases) {
+        double[] weights = new double[bases.size()];
+        Arrays.fill(weights, 1.0 / bases.size());
+        return new EnsembleModel(bases.toArray(new TrainedModel[0]), Method.AVERAGE, weights, null);
+    }
+
+    /**
+     * Learn simplex weights by exponentiated-gradient descent on the out-of-fold log-loss.
+     *
+     * @param oofProbabilities [base][row][class] probabilities predicted for rows held out of each base fit
+     */
+    public static EnsembleModel weighted(List<TrainedModel> bases, double[][][] oofProbabilities, int[] y) {
+        int numBases = bases.size();
+        int n = y.length;
+        double[] weights = new double[numBases];
+        Arrays.fill(weights, 1.0 / numBases);
+        double[] gradient = new double[numBases];
+
+        for (int iter = 0; iter < WEIGHT_ITERATIONS; iter++) {
+            Arrays.fill(gradient, 0.0);
+            for (int i = 0; i < n; i++) {
+                double mixture = 0.0;
+                for (int b = 0; b < numBases; b++) {
+                    mixture += weights[b] * oofProbabilities[b][i][y[i]];
+                }
+                mixture = Math.max(mixture, 1e-15);
+                for (int b = 0; b < numBases; b++) {
+                    gradient[b] -= oofProbabilities[b][i][y[i]] / mixture;
+                }
+            }
+            double sum = 0.0;
+            for (int b = 0; b < numBases; b++) {
+                weights[b] *= Math.exp(-WEIGHT_STEP * gradient[b] / n);
+                sum += weights[b];
+            }
+            for (int b = 0; b < numBases; b++) {
+                weights[b] /= sum;
+            }
+        }
+        return new EnsembleModel(bases.toArray(new TrainedModel[0]), Method.WEIGHTED, weights, null);
+    }
+
+    /**
+     * Fit a multinomial logistic meta-learner on the concatenated out-of-fold base probabilities.
+     */
+    public static EnsembleModel stacked(List<TrainedModel> bases, double[][][] oofProbabilities, int[] y) {
+        int numBases = bases.size();
+        int numClasses = oofProbabilities[0][0].length;
+        double[][] metaFeatures = new double[y.length][numBases * numClasses];
+        for (int i = 0; i < y.length; i++) {
+            for (int b = 0; b < numBases; b++) {
+                System.arraycopy(oofProbabilities[b][i], 0, metaFeatures[i], b * numClasses, numClasses);
+            }
+        }
+        OnlineLogisticRegression meta = new OnlineLogisticRegression(
+                numBases * numClasses, numClasses, 0.01, 1e-4);
+        meta.fit(metaFeatures, y, 20, 64, 42L);
+        return new EnsembleModel(bases.toArray(new TrainedModel[0]), Method.STACKED, null, meta);
+    }
+
+    public int predict(double[] features) {
+        return predict(features, new double[numClasses]);
+    }
+
+    public int predict(double[] features, double[] probabilities) {
+        double[][] baseProbabilities = new double[bases.length][numClasses];
+        for (int b = 0; b < bases.length; b++) {
+            bases[b].predictProba(features, baseProbabilities[b]);
+        }
+        combine(baseProbabilities, probabilities, new double[bases.length * numClasses]);
+        return argMax(probabilities);
+    }
+
+    public void predictBatch(double[][] x, int[] out) {
+        double[][] probabilities = new double[x.length][numClasses];
+        predictProbaBatch(x, probabilities);
+        for (int i = 0; i < x.length; i++) {
+            out[i] = argMax(probabilities[i]);
+        }
+    }
+
+    /**
+     * Score the batch with every base model in parallel, then combine row by row.
+     */
+    public void predictProbaBatch(double[][] x, double[][] out) {
+        double[][][] baseProbabilities = new double[bases.length][x.length][numClasses];
+        IntStream.range(0, bases.length).parallel()
+                .forEach(b -> bases[b].predictProbaBatch(x, baseProbabilities[b]));
+
+        double[][] rowProbabilities = new double[bases.length][];
+        double[] metaFeatures = new double[bases.length * numClasses];
+        for (int i = 0; i < x.length; i++) {
+            for (int b = 0; b < bases.length; b++) {
+                rowProbabilities[b] = baseProbabilities[b][i];
+            }
+            combine(rowProbabilities, out[i], metaFeatures);
+        }
+    }
+
+    private void combine(double[][] baseProbabilities, double[] out, double[] metaFeatures) {
+        if (method == Method.STACKED) {
+            for (int b = 0; b < bases.length; b++) {
+                System.arraycopy(baseProbabilities[b], 0, metaFeatures, b * numClasses, numClasses);
+            }
+            metaLearner.predict(metaFeatures, out);
+            return;
+        }
+        for (int c = 0; c < numClasses; c++) {
+            double p = 0.0;
+            for (int b = 0; b < bases.length; b++) {
+                p += weights[b] * baseProbabilities[b][c];
+            }
+            out[c] = p;
+        }
+    }
+
+    private static int argMax(double[] probabilities) {
+        int best = 0;
+        for (int c = 1; c < probabilities.length; c++) {
+            if (probabilities[c] > probabilities[best]) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    public int numClasses() {
+        return numClasses;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Base weights for AVERAGE and WEIGHTED ensembles, null for STACKED.
+     */
+    public double[] getWeights() {
+        return weights == null ? null : weights.clone();
+    }
+
+    public List<TrainedModel> getBases() {
+        return List.of(bases);
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.soccer.model;
+
+import smile.base.cart.DecisionNode;
+import smile.base.cart.InternalNode;
+import smile.base.cart.Node;
+import smile.base.cart.OrdinalNode;
+import smile.classification.DecisionTree;
+import smile.math.MathEx;
+import smile.util.IntSet;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+/**
+ * A random forest compiled into flat primitive arrays.
+ * Nodes of every tree are stored in depth-first preorder, so the "true" child of
+ * node {@code i} is always {@code i + 1} and only the other child offset is kept.
+ * Rows are scored with a tight loop over these arrays instead of Smile's node
+ * objects and {@code Tuple} accessors; batch scoring walks the forest tree-major
+ * over a block of rows so each tree stays in cache while the block is scored.
+ * Predictions and probabilities match the source forest exactly, because leaf
+ * distributions are precomputed with the library's own formulas and summed in
+ * the same order.
+ */
+public final class FlatForest implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int LEAF = -1;
+    private static final int BLOCK_SIZE = 64;
+
+    private final int numClasses;
+    private final int[] classes;
+    private final int[] treeRoots;
+    private final double[] treeWeights;
+
+    // Per node: split feature (LEAF for leaves), threshold, and the "false" child or leaf id
+    private final int[] featureIndex;
+    private final double[] threshold;
+    private final int[] falseChild;
+
+    // Per leaf: the class index the tree votes for and its class distribution
+    private final int[] leafLabel;
+    private final double[] leafDistribution;
+
+    private FlatForest(int numClasses, int[] classes, Builder builder, double[] treeWeights) {
+        this.numClasses = numClasses;
+        this.classes = classes;
+        this.treeRoots = Arrays.copyOf(builder.treeRoots, builder.treeCount);
+        this.treeWeights = treeWeights;
+        this.featureIndex = Arrays.copyOf(builder.featureIndex, builder.nodeCount);
+        this.threshold = Arrays.copyOf(builder.threshold, builder.nodeCount);
+        this.falseChild = Arrays.copyOf(builder.falseChild, builder.nodeCount);
+        this.leafLabel = Arrays.copyOf(builder.leafLabel, builder.leafCount);
+        this.leafDistribution = Arrays.copyOf(builder.leafDistribution, builder.leafCount * numClasses);
+    }
+
+    /**
+     * Compile a Smile forest. Only ordinal (numeric) splits are supported, which is
+     * all the feature sets in this project produce. Split values and tree classes are
+     * read reflectively, so an incompatible Smile version fails with an
+     * {@link IllegalStateException}.
+     */
+    public static FlatForest compile(smile.classification.RandomForest forest) {
+        smile.classification.RandomForest.Model[] models = forest.models();
+        int numClasses = forest.numClasses();
+        Builder builder = new Builder(numClasses);
+        double[] weights = new double[models.length];
+        Field valueField = accessibleField(OrdinalNode.class, "value");
+        Field classesField = accessibleField(DecisionTree.class, "classes");
+
+        for (int t = 0; t < models.length; t++) {
+            DecisionTree tree = models[t].tree;
+            weights[t] = models[t].weight;
+            IntSet treeClasses = (IntSet) read(classesField, tree);
+            builder.startTree();
+            compileSmileNode(tree.root(), builder, valueField, treeClasses);
+        }
+        return new FlatForest(numClasses, forest.classes(), builder, weights);
+    }
+
+    private static void compileSmileNode(Node node, Builder builder, Field valueField, IntSet treeClasses) {
+        if (node instanceof DecisionNode) {
+            DecisionNode leaf = (DecisionNode) node;
+            // Same value DecisionTree.predict returns, which RandomForest uses as the vote index
+            int label = treeClasses == null ? leaf.output() : treeClasses.valueOf(leaf.output());
+            builder.addLeaf(label, leaf.posteriori(new double[builder.numClasses]));
+        } else if (node instanceof OrdinalNode) {
+            InternalNode split = (InternalNode) node;
+            // Smile sends x <= value to the true child
+            int index = builder.addSplit(split.feature(), (Double) read(valueField, split));
+            compileSmileNode(split.trueChild(), builder, valueField, treeClasses);
+            builder.setFalseChild(index);
+            compileSmileNode(split.falseChild(), builder, valueField, treeClasses);
+        } else {
+            throw new UnsupportedOperationException("Unsupported tree node: " + node.getClass().getSimpleName());
+        }
+    }
+
+    public int predict(double[] x) {
+        int[] votes = new int[numClasses];
+        for (int root : treeRoots) {
+            votes[leafLabel[leafOf(root, x)]]++;
+        }
+        return classes[MathEx.whichMax(votes)];
+    }
+
+    /**
+     * Predict the class and write class probabilities into {@code posteriori}.
+     */
+    public int predict(double[] x, double[] posteriori) {
+        Arrays.fill(posteriori, 0.0);
+        for (int t = 0; t < treeRoots.length; t++) {
+            int offset = leafOf(treeRoots[t], x) * numClasses;
+            double weight = treeWeights[t];
+            for (int c = 0; c < numClasses; c++) {
+                posteriori[c] += weight * leafDistribution[offset + c];
+            }
+        }
+        return finishProbabilities(posteriori);
+    }
+
+    /**
+     * Majority-vote label, as {@link #predict(double[])} returns, with the class probabilities of
+     * {@link #predict(double[], double[])} written into {@code posteriori}, in one pass over the trees.
+     */
+    public int predictWithProba(double[] x, double[] posteriori) {
+        int[] votes = new int[numClasses];
+        Arrays.fill(posteriori, 0.0);
+        for (int t = 0; t < treeRoots.length; t++) {
+            int leaf = leafOf(treeRoots[t], x);
+            votes[leafLabel[leaf]]++;
+            int offset = leaf * numClasses;
+            double weight = treeWeights[t];
+            for (int c = 0; c < numClasses; c++) {
+                posteriori[c] += weight * leafDistribution[offset + c];
+            }
+        }
+        finishProbabilities(posteriori);
+        return classes[MathEx.whichMax(votes)];
+    }
+
+    /**
+     * Tree-major batch prediction of labels.
+     */
+    public void predict(double[][] x, int[] out) {
+        predict(x, 0, x.length, out);
+    }
+
+    /**
+     * Tree-major batch prediction of labels for rows {@code [from, to)} of {@code x}.
+     */
+    public void predict(double[][] x, int from, int to, int[] out) {
+        int[] votes = new int[BLOCK_SIZE * numClasses];
+        int[] rowVotes = new int[numClasses];
+        for (int start = from; start < to; start += BLOCK_SIZE) {
+            int end = Math.min(to, start + BLOCK_SIZE);
+            Arrays.fill(votes, 0);
+            for (int root : treeRoots) {
+                for (int i = start; i < end; i++) {
+                    votes[(i - start) * numClasses + leafLabel[leafOf(root, x[i])]]++;
+                }
+            }
+            for (int i = start; i < end; i++) {
+                System.arraycopy(votes, (i - start) * numClasses, rowVotes, 0, numClasses);
+                out[i] = classes[MathEx.whichMax(rowVotes)];
+            }
+        }
+    }
+
+    /**
+     * Tree-major batch prediction of class probabilities into the rows of {@code out}.
+     */
+    public void predictProba(double[][] x, double[][] out) {
+        predictProba(x, 0, x.length, out);
+    }
+
+    /**
+     * Tree-major batch prediction of class probabilities for rows {@code [from, to)} of {@code x}.
+     */
+    public void predictProba(double[][] x, int from, int to, double[][] out) {
+        for (int start = from; start < to; start += BLOCK_SIZE) {
+            int end = Math.min(to, start + BLOCK_SIZE);
+            double[][] block = Arrays.copyOfRange(out, start, end);
+            scoreBlock(x, start, end, block);
+            for (double[] row : block) {
+                finishProbabilities(row);
+            }
+        }
+    }
+
+    private void scoreBlock(double[][] x, int from, int to, double[][] block) {
+        for (int i = 0; i < to - from; i++) {
+            Arrays.fill(block[i], 0.0);
+        }
+        for (int t = 0; t < treeRoots.length; t++) {
+            int root = treeRoots[t];
+            double weight = treeWeights[t];
+            for (int i = from; i < to; i++) {
+                int offset = leafOf(root, x[i]) * numClasses;
+                double[] acc = block[i - from];
+                for (int c = 0; c < numClasses; c++) {
+                    acc[c] += weight * leafDistribution[offset + c];
+                }
+            }
+        }
+    }
+
+    private int finishProbabilities(double[] posteriori) {
+        MathEx.unitize1(posteriori);
+        return classes[MathEx.whichMax(posteriori)];
+    }
+
+    private int leafOf(int root, double[] x) {
+        int node = root;
+        int feature;
+        while ((feature = featureIndex[node]) != LEAF) {
+            node = x[feature] <= threshold[node] ? node + 1 : falseChild[node];
+        }
+        return falseChild[node];
+    }
+
+    public int numClasses() {
+        return numClasses;
+    }
+
+    public int numTrees() {
+        return treeRoots.length;
+    }
+
+    public int numNodes() {
+        return featureIndex.length;
+    }
+
+    private static Field accessibleField(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("Unsupported library version, missing field "
+                    + type.getSimpleName() + "." + name, e);
+        }
+    }
+
+    private static Object read(Field field, Object target) {
+        try {
+            return field.get(target);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read " + field.getName(), e);
+        }
+    }
+
+    /**
+     * Growable node and leaf arrays used while compiling.
+     */
+    private static final class Builder {
+        final int numClasses;
+        int[] treeRoots = new int[16];
+        int treeCount;
+        int[] featureIndex = new int[1024];
+        double[] threshold = new double[1024];
+        int[] falseChild = new int[1024];
+        int nodeCount;
+        int[] leafLabel = new int[512];
+        double[] leafDistribution;
+        int leafCount;
+
+        Builder(int numClasses) {
+            this.numClasses = numClasses;
+            this.leafDistribution = new double[512 * numClasses];
+        }
+
+        void startTree() {
+            if (treeCount == treeRoots.length) {
+                treeRoots = Arrays.copyOf(treeRoots, treeCount * 2);
+            }
+            treeRoots[treeCount++] = nodeCount;
+        }
+
+        int addSplit(int feature, double value) {
+            int index = newNode();
+            featureIndex[index] = feature;
+            threshold[index] = value;
+            return index;
+        }
+
+        void setFalseChild(int splitIndex) {
+            falseChild[splitIndex] = nodeCount;
+        }
+
+        void addLeaf(int label, double[] distribution) {
+            int index = newNode();
+            if (leafCount == leafLabel.length) {
+                leafLabel = Arrays.copyOf(leafLabel, leafCount * 2);
+                leafDistribution = Arrays.copyOf(leafDistribution, leafCount * 2 * numClasses);
+            }
+            featureIndex[index] = LEAF;
+            falseChild[index] = leafCount;
+            leafLabel[leafCount] = label;
+            System.arraycopy(distribution, 0, leafDistribution, leafCount * numClasses, numClasses);
+            leafCount++;
+        }
+
+        private int newNode() {
+            if (nodeCount == featureIndex.length) {
+                int capacity = nodeCount * 2;
+                featureIndex = Arrays.copyOf(featureIndex, capacity);
+                threshold = Arrays.copyOf(threshold, capacity);
+                falseChild = Arrays.copyOf(falseChild, capacity);
+            }
+            return nodeCount++;
+        }
+    }
+}
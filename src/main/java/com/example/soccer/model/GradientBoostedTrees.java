@@ -0,0 +1,462 @@
+package com.example.soccer.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Multiclass gradient-boosted trees trained on histogram-binned features.
+ * Each feature column is pre-binned into at most 256 quantile buckets stored as
+ * bytes, so finding a split only scans per-bucket gradient sums instead of sorting
+ * rows. A node's histogram is built only for the smaller child; the larger child's
+ * is the parent minus the sibling. Histograms are built across features in
+ * parallel. A slice of the training data is held out for early stopping.
+ * Trees are stored flat in preorder, as in {@link FlatForest}, one tree per class per round.
+ */
+public class GradientBoostedTrees implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAX_BINS = 256;
+    private static final int LEAF = -1;
+    private static final double L2 = 1.0;
+    private static final double MIN_GAIN = 1e-9;
+    /** Below this many row-feature cells a histogram is built on the calling thread. */
+    private static final int PARALLEL_CELLS = 1 << 15;
+
+    private final int maxRounds;
+    private final double learningRate;
+    private final int maxDepth;
+    private final int minSamplesLeaf;
+    private final double validationFraction;
+    private final int patience;
+
+    private int numClasses;
+    private double[] baseScore;
+    private int numRounds;
+    private double bestValidationLoss = Double.NaN;
+    private int[] treeRoots;
+    private int[] featureIndex;
+    private double[] threshold;
+    private int[] falseChild;
+    private double[] leafValue;
+
+    /**
+     * @param validationFraction share of the training rows held out for early stopping, 0 to disable
+     * @param patience           rounds without a validation improvement before training stops
+     */
+    public GradientBoostedTrees(int maxRounds, double learningRate, int maxDepth, int minSamplesLeaf,
+                                double validationFraction, int patience) {
+        this.maxRounds = maxRounds;
+        this.learningRate = learningRate;
+        this.maxDepth = maxDepth;
+        this.minSamplesLeaf = minSamplesLeaf;
+        this.validationFraction = validationFraction;
+        this.patience = patience;
+    }
+
+    public void fit(double[][] x, int[] y, int numClasses, long seed) {
+        this.numClasses = numClasses;
+        int p = x[0].length;
+
+        // Random train / validation split
+        int[] order = IntStream.range(0, x.length).toArray();
+        Random random = new Random(seed);
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        int numValid = (int) (x.length * validationFraction);
+        int[] validRows = Arrays.copyOfRange(order, 0, numValid);
+        int[] trainRows = Arrays.copyOfRange(order, numValid, order.length);
+        Arrays.sort(trainRows);
+        int n = trainRows.length;
+        int[] yTrain = new int[n];
+        for (int i = 0; i < n; i++) {
+            yTrain[i] = y[trainRows[i]];
+        }
+
+        // Bin every feature column of the training rows
+        double[][] cuts = new double[p][];
+        byte[][] bins = new byte[p][];
+        IntStream.range(0, p).parallel().forEach(f -> {
+            double[] column = new double[n];
+            for (int i = 0; i < n; i++) {
+                column[i] = x[trainRows[i]][f];
+            }
+            cuts[f] = binEdges(column);
+            bins[f] = new byte[n];
+            for (int i = 0; i < n; i++) {
+                bins[f][i] = (byte) binOf(cuts[f], column[i]);
+            }
+        });
+
+        // Start from the smoothed log class priors
+        baseScore = new double[numClasses];
+        for (int label : yTrain) {
+            baseScore[label]++;
+        }
+        for (int c = 0; c < numClasses; c++) {
+            baseScore[c] = Math.log((baseScore[c] + 1.0) / (n + numClasses));
+        }
+        double[][] trainScore = new double[n][];
+        for (int i = 0; i < n; i++) {
+            trainScore[i] = baseScore.clone();
+        }
+        double[][] validScore = new double[numValid][];
+        for (int i = 0; i < numValid; i++) {
+            validScore[i] = baseScore.clone();
+        }
+
+        TreeBuilder builder = new TreeBuilder();
+        int[] rounds = new int[maxRounds + 1];
+        double[] gradient = new double[n];
+        double[] hessian = new double[n];
+        double[] probabilities = new double[numClasses];
+        double[][] trainProbabilities = new double[n][numClasses];
+        int[] rows = new int[n];
+        int bestRound = 0;
+        bestValidationLoss = Double.POSITIVE_INFINITY;
+
+        for (int round = 0; round < maxRounds; round++) {
+            for (int i = 0; i < n; i++) {
+                softmax(trainScore[i], trainProbabilities[i]);
+            }
+            for (int c = 0; c < numClasses; c++) {
+                for (int i = 0; i < n; i++) {
+                    double pc = trainProbabilities[i][c];
+                    gradient[i] = pc - (yTrain[i] == c ? 1.0 : 0.0);
+                    hessian[i] = Math.max(pc * (1.0 - pc), 1e-16);
+                }
+                for (int i = 0; i < n; i++) {
+                    rows[i] = i;
+                }
+                builder.startTree();
+                Histogram root = new Histogram(p);
+                root.build(bins, rows, 0, n, gradient, hessian);
+                grow(builder, bins, cuts, gradient, hessian, rows, 0, n, root, 0, trainScore, c);
+            }
+            rounds[round + 1] = builder.nodeCount;
+
+            if (numValid == 0) {
+                bestRound = round + 1;
+                continue;
+            }
+            double loss = 0.0;
+            for (int v = 0; v < numValid; v++) {
+                double[] row = x[validRows[v]];
+                for (int c = 0; c < numClasses; c++) {
+                    int root = builder.treeRoots[round * numClasses + c];
+                    validScore[v][c] += builder.leafValue[leafOf(builder.featureIndex, builder.threshold,
+                            builder.falseChild, root, row)];
+                }
+                softmax(validScore[v], probabilities);
+                loss -= Math.log(Math.max(probabilities[y[validRows[v]]], 1e-15));
+            }
+            loss /= numValid;
+            if (loss < bestValidationLoss) {
+                bestValidationLoss = loss;
+                bestRound = round + 1;
+            } else if (round + 1 - bestRound >= patience) {
+                break;
+            }
+        }
+        if (numValid == 0) {
+            bestValidationLoss = Double.NaN;
+        }
+
+        // Keep only the rounds up to the best validation score
+        numRounds = bestRound;
+        int nodes = rounds[bestRound];
+        treeRoots = Arrays.copyOf(builder.treeRoots, bestRound * numClasses);
+        featureIndex = Arrays.copyOf(builder.featureIndex, nodes);
+        threshold = Arrays.copyOf(builder.threshold, nodes);
+        falseChild = Arrays.copyOf(builder.falseChild, nodes);
+        leafValue = Arrays.copyOf(builder.leafValue, nodes);
+    }
+
+    private void grow(TreeBuilder builder, byte[][] bins, double[][] cuts, double[] gradient, double[] hessian,
+                      int[] rows, int from, int to, Histogram histogram, int depth,
+                      double[][] trainScore, int targetClass) {
+        double sumG = 0.0;
+        double sumH = 0.0;
+        for (int b = 0; b < MAX_BINS; b++) {
+            sumG += histogram.grad[b];
+            sumH += histogram.hess[b];
+        }
+
+        Split split = null;
+        if (depth < maxDepth && to - from >= 2 * minSamplesLeaf) {
+            split = histogram.bestSplit(cuts, sumG, sumH, to - from, minSamplesLeaf);
+        }
+        if (split == null) {
+            double value = -learningRate * sumG / (sumH + L2);
+            builder.addLeaf(value);
+            for (int r = from; r < to; r++) {
+                trainScore[rows[r]][targetClass] += value;
+            }
+            return;
+        }
+
+        // Partition rows so the left child (bin <= split bin) comes first
+        byte[] column = bins[split.feature];
+        int mid = from;
+        for (int r = from; r < to; r++) {
+            if ((column[rows[r]] & 0xFF) <= split.bin) {
+                int tmp = rows[mid];
+                rows[mid++] = rows[r];
+                rows[r] = tmp;
+            }
+        }
+
+        // Build the smaller child's histogram; the larger one is parent minus sibling
+        Histogram left;
+        Histogram right;
+        Histogram small = new Histogram(histogram.numFeatures);
+        if (mid - from <= to - mid) {
+            small.build(bins, rows, from, mid, gradient, hessian);
+            histogram.subtract(small);
+            left = small;
+            right = histogram;
+        } else {
+            small.build(bins, rows, mid, to, gradient, hessian);
+            histogram.subtract(small);
+            left = histogram;
+            right = small;
+        }
+
+        int node = builder.addSplit(split.feature, cuts[split.feature][split.bin]);
+        grow(builder, bins, cuts, gradient, hessian, rows, from, mid, left, depth + 1, trainScore, targetClass);
+        builder.falseChild[node] = builder.nodeCount;
+        grow(builder, bins, cuts, gradient, hessian, rows, mid, to, right, depth + 1, trainScore, targetClass);
+    }
+
+    /**
+     * Upper bin edges: bin {@code b} holds values {@code <= edges[b]}, the last bin everything above.
+     * Uses every distinct value when there are few, otherwise quantiles.
+     */
+    private static double[] binEdges(double[] column) {
+        double[] sorted = column.clone();
+        Arrays.sort(sorted);
+        double[] distinct = new double[sorted.length];
+        int count = 0;
+        for (double v : sorted) {
+            if (count == 0 || v != distinct[count - 1]) {
+                distinct[count++] = v;
+            }
+        }
+        if (count <= MAX_BINS) {
+            return Arrays.copyOf(distinct, Math.max(0, count - 1));
+        }
+        double[] edges = new double[MAX_BINS - 1];
+        int size = 0;
+        for (int b = 1; b < MAX_BINS; b++) {
+            double edge = sorted[(int) ((long) b * sorted.length / MAX_BINS) - 1];
+            if (size == 0 || edge > edges[size - 1]) {
+                edges[size++] = edge;
+            }
+        }
+        return Arrays.copyOf(edges, size);
+    }
+
+    private static int binOf(double[] edges, double value) {
+        int index = Arrays.binarySearch(edges, value);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    public int predict(double[] x) {
+        return predict(x, new double[numClasses]);
+    }
+
+    /**
+     * Predict the class and write the softmax probabilities into {@code probabilities}.
+     */
+    public int predict(double[] x, double[] probabilities) {
+        double[] score = baseScore.clone();
+        for (int t = 0; t < treeRoots.length; t++) {
+            score[t % numClasses] += leafValue[leafOf(featureIndex, threshold, falseChild, treeRoots[t], x)];
+        }
+        softmax(score, probabilities);
+        int best = 0;
+        for (int c = 1; c < numClasses; c++) {
+            if (probabilities[c] > probabilities[best]) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private static int leafOf(int[] featureIndex, double[] threshold, int[] falseChild, int root, double[] x) {
+        int node = root;
+        int feature;
+        while ((feature = featureIndex[node]) != LEAF) {
+            node = x[feature] <= threshold[node] ? node + 1 : falseChild[node];
+        }
+        return node;
+    }
+
+    private static void softmax(double[] score, double[] probabilities) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (double s : score) {
+            max = Math.max(max, s);
+        }
+        double sum = 0.0;
+        for (int c = 0; c < score.length; c++) {
+            probabilities[c] = Math.exp(score[c] - max);
+            sum += probabilities[c];
+        }
+        for (int c = 0; c < score.length; c++) {
+            probabilities[c] /= sum;
+        }
+    }
+
+    public int numClasses() {
+        return numClasses;
+    }
+
+    /**
+     * Boosting rounds kept after early stopping.
+     */
+    public int getNumRounds() {
+        return numRounds;
+    }
+
+    /**
+     * Validation log-loss at the kept round, or NaN if no validation split was used.
+     */
+    public double getBestValidationLoss() {
+        return bestValidationLoss;
+    }
+
+    /**
+     * Per-bin gradient sums, hessian sums and row counts for every feature, bin-major within a feature.
+     */
+    private static final class Histogram {
+        final int numFeatures;
+        final double[] grad;
+        final double[] hess;
+        final int[] count;
+
+        Histogram(int numFeatures) {
+            this.numFeatures = numFeatures;
+            this.grad = new double[numFeatures * MAX_BINS];
+            this.hess = new double[numFeatures * MAX_BINS];
+            this.count = new int[numFeatures * MAX_BINS];
+        }
+
+        void build(byte[][] bins, int[] rows, int from, int to, double[] gradient, double[] hessian) {
+            IntStream features = IntStream.range(0, numFeatures);
+            if ((long) (to - from) * numFeatures >= PARALLEL_CELLS) {
+                features = features.parallel();
+            }
+            // Each feature owns its own slice of the arrays, so features fill concurrently
+            features.forEach(f -> {
+                byte[] column = bins[f];
+                int offset = f * MAX_BINS;
+                for (int r = from; r < to; r++) {
+                    int row = rows[r];
+                    int b = offset + (column[row] & 0xFF);
+                    grad[b] += gradient[row];
+                    hess[b] += hessian[row];
+                    count[b]++;
+                }
+            });
+        }
+
+        void subtract(Histogram other) {
+            for (int i = 0; i < grad.length; i++) {
+                grad[i] -= other.grad[i];
+                hess[i] -= other.hess[i];
+                count[i] -= other.count[i];
+            }
+        }
+
+        Split bestSplit(double[][] cuts, double sumG, double sumH, int rows, int minSamplesLeaf) {
+            double parentScore = sumG * sumG / (sumH + L2);
+            Split best = null;
+            for (int f = 0; f < numFeatures; f++) {
+                int offset = f * MAX_BINS;
+                double leftG = 0.0;
+                double leftH = 0.0;
+                int leftCount = 0;
+                // The last bin has no upper edge, so it can only be on the right
+                for (int b = 0; b < cuts[f].length; b++) {
+                    leftG += grad[offset + b];
+                    leftH += hess[offset + b];
+                    leftCount += count[offset + b];
+                    if (leftCount < minSamplesLeaf) {
+                        continue;
+                    }
+                    if (rows - leftCount < minSamplesLeaf) {
+                        break;
+                    }
+                    double rightG = sumG - leftG;
+                    double rightH = sumH - leftH;
+                    double gain = leftG * leftG / (leftH + L2) + rightG * rightG / (rightH + L2) - parentScore;
+                    if (gain > MIN_GAIN && (best == null || gain > best.gain)) {
+                        best = new Split(f, b, gain);
+                    }
+                }
+            }
+            return best;
+        }
+    }
+
+    private static final class Split {
+        final int feature;
+        final int bin;
+        final double gain;
+
+        Split(int feature, int bin, double gain) {
+            this.feature = feature;
+            this.bin = bin;
+            this.gain = gain;
+        }
+    }
+
+    /**
+     * Growable preorder node arrays; a split's left child is the next node.
+     */
+    private static final class TreeBuilder {
+        int[] treeRoots = new int[64];
+        int treeCount;
+        int[] featureIndex = new int[1024];
+        double[] threshold = new double[1024];
+        int[] falseChild = new int[1024];
+        double[] leafValue = new double[1024];
+        int nodeCount;
+
+        void startTree() {
+            if (treeCount == treeRoots.length) {
+                treeRoots = Arrays.copyOf(treeRoots, treeCount * 2);
+            }
+            treeRoots[treeCount++] = nodeCount;
+        }
+
+        int addSplit(int feature, double value) {
+            int index = newNode();
+            featureIndex[index] = feature;
+            threshold[index] = value;
+            return index;
+        }
+
+        void addLeaf(double value) {
+            int index = newNode();
+            featureIndex[index] = LEAF;
+            leafValue[index] = value;
+        }
+
+        private int newNode() {
+            if (nodeCount == featureIndex.length) {
+                int capacity = nodeCount * 2;
+                featureIndex = Arrays.copyOf(featureIndex, capacity);
+                threshold = Arrays.copyOf(threshold, capacity);
+                falseChild = Arrays.copyOf(falseChild, capacity);
+                leafValue = Arrays.copyOf(leafValue, capacity);
+            }
+            return nodeCount++;
+        }
+    }
+}
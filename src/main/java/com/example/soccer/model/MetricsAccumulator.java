@@ -0,0 +1,198 @@
+package com.example.soccer.model;
+
+/**
+ * Streaming classification metrics.
+ * Predictions are added one at a time, optionally with their probability vector,
+ * and accumulators from parallel workers or CV folds can be merged, so backtests
+ * of any size are evaluated without storing the predictions.
+ * Not thread-safe: give each worker its own accumulator and merge them at the end.
+ */
+public class MetricsAccumulator {
+    public static final String[] OUTCOME_CLASS_NAMES = {"Home Win", "Draw", "Away Win"};
+
+    private static final int DEFAULT_CALIBRATION_BINS = 10;
+    private static final double LOG_LOSS_EPSILON = 1e-15;
+
+    private final String[] classNames;
+    private final int numClasses;
+    private final long[][] confusion;
+    private long count;
+    private long correct;
+
+    // Probabilistic scores, only over predictions that came with probabilities
+    private long scoredCount;
+    private double logLossSum;
+    private double brierSum;
+
+    // One-vs-rest reliability bins over every class probability
+    private final int calibrationBins;
+    private final long[] binCount;
+    private final double[] binPredictedSum;
+    private final double[] binObservedSum;
+
+    public MetricsAccumulator(String[] classNames, int calibrationBins) {
+        this.classNames = classNames.clone();
+        this.numClasses = classNames.length;
+        this.confusion = new long[numClasses][numClasses];
+        this.calibrationBins = calibrationBins;
+        this.binCount = new long[calibrationBins];
+        this.binPredictedSum = new double[calibrationBins];
+        this.binObservedSum = new double[calibrationBins];
+    }
+
+    public MetricsAccumulator(String[] classNames) {
+        this(classNames, DEFAULT_CALIBRATION_BINS);
+    }
+
+    /**
+     * Accumulator for the home/draw/away outcome labels.
+     */
+    public static MetricsAccumulator forOutcomes() {
+        return new MetricsAccumulator(OUTCOME_CLASS_NAMES);
+    }
+
+    public void add(int yTrue, int yPred) {
+        confusion[yTrue][yPred]++;
+        count++;
+        if (yTrue == yPred) {
+            correct++;
+        }
+    }
+
+    /**
+     * Add a prediction given as class probabilities; the predicted class is the arg-max.
+     */
+    public void add(int yTrue, double[] probabilities) {
+        int best = 0;
+        for (int c = 1; c < numClasses; c++) {
+            if (probabilities[c] > probabilities[best]) {
+                best = c;
+            }
+        }
+        add(yTrue, best, probabilities);
+    }
+
+    public void add(int yTrue, int yPred, double[] probabilities) {
+        add(yTrue, yPred);
+        scoredCount++;
+        double p = Math.min(1.0 - LOG_LOSS_EPSILON, Math.max(LOG_LOSS_EPSILON, probabilities[yTrue]));
+        logLossSum -= Math.log(p);
+        for (int c = 0; c < numClasses; c++) {
+            double observed = c == yTrue ? 1.0 : 0.0;
+            double diff = probabilities[c] - observed;
+            brierSum += diff * diff;
+
+            int bin = Math.min(calibrationBins - 1, Math.max(0, (int) (probabilities[c] * calibrationBins)));
+            binCount[bin]++;
+            binPredictedSum[bin] += probabilities[c];
+            binObservedSum[bin] += observed;
+        }
+    }
+
+    /**
+     * Fold another accumulator with the same classes and bins into this one.
+     */
+    public MetricsAccumulator merge(MetricsAccumulator other) {
+        if (other.numClasses != numClasses || other.calibrationBins != calibrationBins) {
+            throw new IllegalArgumentException("Cannot merge accumulators with different classes or bins");
+        }
+        for (int i = 0; i < numClasses; i++) {
+            for (int j = 0; j < numClasses; j++) {
+                confusion[i][j] += other.confusion[i][j];
+            }
+        }
+        count += other.count;
+        correct += other.correct;
+        scoredCount += other.scoredCount;
+        logLossSum += other.logLossSum;
+        brierSum += other.brierSum;
+        for (int b = 0; b < calibrationBins; b++) {
+            binCount[b] += other.binCount[b];
+            binPredictedSum[b] += other.binPredictedSum[b];
+            binObservedSum[b] += other.binObservedSum[b];
+        }
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getAccuracy() {
+        return (double) correct / count;
+    }
+
+    /**
+     * Mean multiclass log-loss, or NaN if no prediction carried probabilities.
+     */
+    public double getLogLoss() {
+        return scoredCount == 0 ? Double.NaN : logLossSum / scoredCount;
+    }
+
+    /**
+     * Mean multiclass Brier score (sum over classes), or NaN if no prediction carried probabilities.
+     */
+    public double getBrierScore() {
+        return scoredCount == 0 ? Double.NaN : brierSum / scoredCount;
+    }
+
+    /**
+     * Reliability table with one row per bin: {lower bound, mean predicted, observed rate, count}.
+     */
+    public double[][] getCalibration() {
+        double[][] table = new double[calibrationBins][4];
+        for (int b = 0; b < calibrationBins; b++) {
+            table[b][0] = (double) b / calibrationBins;
+            table[b][1] = binCount[b] > 0 ? binPredictedSum[b] / binCount[b] : Double.NaN;
+            table[b][2] = binCount[b] > 0 ? binObservedSum[b] / binCount[b] : Double.NaN;
+            table[b][3] = binCount[b];
+        }
+        return table;
+    }
+
+    /**
+     * Snapshot of the hard-label metrics accumulated so far.
+     */
+    public ClassificationMetrics toMetrics() {
+        double[][] confusionMatrix = new double[numClasses][numClasses];
+        double[] precision = new double[numClasses];
+        double[] recall = new double[numClasses];
+        double[] f1Score = new double[numClasses];
+
+        for (int i = 0; i < numClasses; i++) {
+            double tp = confusion[i][i];
+            double fp = 0.0;
+            double fn = 0.0;
+            for (int j = 0; j < numClasses; j++) {
+                confusionMatrix[i][j] = confusion[i][j];
+                if (j != i) {
+                    fn += confusion[i][j];
+                    fp += confusion[j][i];
+                }
+            }
+
+            precision[i] = (tp + fp > 0) ? tp / (tp + fp) : 0.0;
+            recall[i] = (tp + fn > 0) ? tp / (tp + fn) : 0.0;
+            f1Score[i] = (precision[i] + recall[i] > 0) ?
+                    2 * precision[i] * recall[i] / (precision[i] + recall[i]) : 0.0;
+        }
+
+        return new ClassificationMetrics(getAccuracy(), confusionMatrix, precision, recall, f1Score,
+                classNames.clone());
+    }
+
+    /**
+     * Print log-loss, Brier score and the reliability table.
+     */
+    public void printProbabilistic() {
+        System.out.printf("Log-loss: %.4f   Brier score: %.4f   (%d scored predictions)%n",
+                getLogLoss(), getBrierScore(), scoredCount);
+        System.out.println("Calibration (all classes, one-vs-rest):");
+        System.out.printf("%-12s %12s %12s %10s%n", "Bin", "Predicted", "Observed", "Count");
+        for (double[] row : getCalibration()) {
+            if (row[3] == 0) continue;
+            System.out.printf("%.2f-%.2f    %12.4f %12.4f %10.0f%n",
+                    row[0], row[0] + 1.0 / calibrationBins, row[1], row[2], row[3]);
+        }
+    }
+}
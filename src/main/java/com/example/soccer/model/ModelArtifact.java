@@ -0,0 +1,67 @@
+package com.example.soccer.model;
+
+import com.example.soccer.feature.FeatureNormalizer;
+
+import java.io.Serializable;
+
+/**
+ * Everything needed to serve a trained model without retraining:
+ * the model itself, its feature-set definition, the training-set normalization
+ * parameters, evaluation metrics and a fingerprint of the training data.
+ */
+public class ModelArtifact implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String featureSetName;
+    private final int featureCount;
+    private final String modelType;
+    private final Object model;
+    private final ClassificationMetrics metrics;
+    private final FeatureNormalizer.MinMax normalization;
+    private final String dataFingerprint;
+    private final long createdAtMillis;
+
+    public ModelArtifact(TrainedModel trainedModel, int featureCount,
+                         FeatureNormalizer.MinMax normalization, String dataFingerprint) {
+        this.featureSetName = trainedModel.getFeatureSetName();
+        this.featureCount = featureCount;
+        this.modelType = trainedModel.getModelType();
+        this.model = trainedModel.getModel();
+        this.metrics = trainedModel.getMetrics();
+        this.normalization = normalization;
+        this.dataFingerprint = dataFingerprint;
+        this.createdAtMillis = System.currentTimeMillis();
+    }
+
+    public TrainedModel toTrainedModel() {
+        return new TrainedModel(featureSetName, modelType, model, metrics);
+    }
+
+    public String getFeatureSetName() {
+        return featureSetName;
+    }
+
+    public int getFeatureCount() {
+        return featureCount;
+    }
+
+    public String getModelType() {
+        return modelType;
+    }
+
+    public ClassificationMetrics getMetrics() {
+        return metrics;
+    }
+
+    public FeatureNormalizer.MinMax getNormalization() {
+        return normalization;
+    }
+
+    public String getDataFingerprint() {
+        return dataFingerprint;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+}
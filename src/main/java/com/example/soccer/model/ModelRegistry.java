@@ -0,0 +1,133 @@
+package com.example.soccer.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * On-disk registry of trained models.
+ * Each model is written to its own versioned artifact file, so a later run can
+ * serve predictions without touching SQLite or retraining.
+ */
+public final class ModelRegistry {
+    /** Bumped whenever the artifact layout changes; files with another version are skipped. */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int MAGIC = 0x53434D52; // "SCMR"
+    private static final String EXTENSION = ".model";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private ModelRegistry() {
+    }
+
+    /**
+     * Write an artifact as {@code <modelType>-<featureSet>.model}, replacing any previous version.
+     */
+    public static Path save(String directory, ModelArtifact artifact) throws IOException {
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        Path file = dir.resolve(artifact.getModelType() + "-" + artifact.getFeatureSetName() + EXTENSION);
+        Path tmp = dir.resolve(file.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            ObjectOutputStream objects = new ObjectOutputStream(out);
+            objects.writeObject(artifact);
+            objects.flush();
+        }
+        // Write then rename so a concurrent reader never sees a half-written artifact
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    public static ModelArtifact load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a model artifact: " + file);
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported artifact version " + version
+                        + " (expected " + FORMAT_VERSION + "): " + file);
+            }
+            return (ModelArtifact) new ObjectInputStream(in).readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Corrupt model artifact " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Load every artifact in the registry directory, skipping unreadable or outdated files.
+     */
+    public static List<ModelArtifact> loadAll(String directory) throws IOException {
+        Path dir = Paths.get(directory);
+        List<ModelArtifact> artifacts = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return artifacts;
+        }
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.filter(p -> p.getFileName().toString().endsWith(EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            try {
+                artifacts.add(load(file));
+            } catch (IOException e) {
+                System.err.println("Skipping model artifact: " + e.getMessage());
+            }
+        }
+        return artifacts;
+    }
+
+    /**
+     * SHA-256 fingerprint of a feature matrix and its labels, used to tell which data a model saw.
+     */
+    public static String fingerprint(double[][] x, int[] y) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+
+        int numFeatures = x.length > 0 ? x[0].length : 0;
+        ByteBuffer row = ByteBuffer.allocate(Math.max(8, numFeatures * 8 + 4));
+        row.putInt(x.length).putInt(numFeatures);
+        digest.update(row.array(), 0, 8);
+        for (int i = 0; i < x.length; i++) {
+            row.clear();
+            for (int j = 0; j < numFeatures; j++) {
+                row.putDouble(x[i][j]);
+            }
+            row.putInt(y[i]);
+            digest.update(row.array(), 0, row.position());
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
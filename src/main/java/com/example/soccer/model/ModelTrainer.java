@@ -5,9 +5,26 @@ import smile.classification.RandomForest;
 import smile.classification.LDA;
 import smile.data.DataFrame;
 import smile.data.formula.Formula;
+import smile.data.vector.IntVector;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
 
 public final class ModelTrainer {
 
+    private static final double ONLINE_LEARNING_RATE = 0.01;
+    private static final double ONLINE_L2 = 1e-4;
+    private static final int ONLINE_EPOCHS = 20;
+    private static final int ONLINE_BATCH_SIZE = 64;
+    private static final long FOLD_SEED = 42L;
+    private static final int BOOSTING_MAX_ROUNDS = 300;
+    private static final double BOOSTING_LEARNING_RATE = 0.05;
+    private static final int BOOSTING_MAX_DEPTH = 4;
+    private static final int BOOSTING_MIN_SAMPLES_LEAF = 20;
+    private static final double BOOSTING_VALIDATION_FRACTION = 0.1;
+    private static final int BOOSTING_PATIENCE = 20;
+
     private ModelTrainer() {
     }
 
@@ -21,30 +38,63 @@ public final class ModelTrainer {
         return new TrainedModel(name, "LogisticRegression", model, metrics);
     }
 
+    public static TrainedModel trainOnlineLogistic(String name, double[][] xTrain, int[] yTrain,
+                                                   double[][] xTest, int[] yTest) {
+        OnlineLogisticRegression model = fitOnlineLogistic(xTrain, yTrain);
+        return evaluateOnline(name, model, xTest, yTest);
+    }
+
+    private static TrainedModel evaluateOnline(String name, OnlineLogisticRegression model,
+                                               double[][] xTest, int[] yTest) {
+        int[] yPred = new int[xTest.length];
+        for (int i = 0; i < xTest.length; i++) {
+            yPred[i] = model.predict(xTest[i]);
+        }
+        ClassificationMetrics metrics = ClassificationMetrics.compute(yTest, yPred, 3);
+        System.out.println("\n=== Online Logistic Regression: " + name + " ===");
+        metrics.print();
+        return new TrainedModel(name, "OnlineLogistic", model, metrics);
+    }
+
     public static TrainedModel trainRandomForest(String name, double[][] xTrain, int[] yTrain,
                                                   double[][] xTest, int[] yTest) {
         try {
-            DataFrame trainDf = toDataFrame(xTrain, yTrain);
-            DataFrame testDf = toDataFrame(xTest, new int[xTest.length]);
-            
-            Formula formula = Formula.lhs("label");
-            RandomForest model = RandomForest.fit(formula, trainDf);
-            
+            RandomForest model = fitRandomForest(xTrain, yTrain);
+            RandomForestScorer scorer = new RandomForestScorer(model, xTrain);
+
             int[] yPred = new int[xTest.length];
-            for (int i = 0; i < xTest.length; i++) {
-                yPred[i] = model.predict(testDf.get(i));
-            }
-            
+            scorer.predict(xTest, yPred);
+
             ClassificationMetrics metrics = ClassificationMetrics.compute(yTest, yPred, 3);
             System.out.println("\n=== Random Forest: " + name + " ===");
             metrics.print();
-            return new TrainedModel(name, "RandomForest", model, metrics);
+            return new TrainedModel(name, "RandomForest", model, metrics, scorer);
         } catch (Exception e) {
             System.err.println("Random Forest training failed: " + e.getMessage());
             return null;
         }
     }
 
+    public static TrainedModel trainGradientBoosting(String name, double[][] xTrain, int[] yTrain,
+                                                     double[][] xTest, int[] yTest) {
+        try {
+            GradientBoostedTrees model = fitGradientBoosting(xTrain, yTrain);
+            int[] yPred = new int[xTest.length];
+            for (int i = 0; i < xTest.length; i++) {
+                yPred[i] = model.predict(xTest[i]);
+            }
+            ClassificationMetrics metrics = ClassificationMetrics.compute(yTest, yPred, 3);
+            System.out.println("\n=== Gradient Boosting: " + name + " ===");
+            System.out.printf("Rounds kept: %d (validation log-loss %.4f)%n",
+                    model.getNumRounds(), model.getBestValidationLoss());
+            metrics.print();
+            return new TrainedModel(name, "GradientBoosting", model, metrics);
+        } catch (Exception e) {
+            System.err.println("Gradient Boosting training failed: " + e.getMessage());
+            return null;
+        }
+    }
+
     public static TrainedModel trainLDA(String name, double[][] xTrain, int[] yTrain,
                                         double[][] xTest, int[] yTest) {
         try {
@@ -60,6 +110,156 @@ public final class ModelTrainer {
         }
     }
 
+    /**
+     * Build an ensemble over models already trained on the same feature set.
+     * For WEIGHTED and STACKED the combiner is learned on out-of-fold probabilities:
+     * every base type is refit on k-1 folds of the training data and scores the
+     * held-out fold, with the folds running in parallel.
+     */
+    public static TrainedModel trainEnsemble(String name, List<TrainedModel> bases, EnsembleModel.Method method,
+                                             int folds, double[][] xTrain, int[] yTrain,
+                                             double[][] xTest, int[] yTest) {
+        if (bases.size() < 2) {
+            System.err.println("Ensemble needs at least two base models, got " + bases.size());
+            return null;
+        }
+        try {
+            EnsembleModel ensemble;
+            if (method == EnsembleModel.Method.AVERAGE) {
+                ensemble = EnsembleModel.average(bases);
+            } else {
+                double[][][] oof = outOfFoldProbabilities(bases, folds, xTrain, yTrain);
+                ensemble = method == EnsembleModel.Method.WEIGHTED
+                        ? EnsembleModel.weighted(bases, oof, yTrain)
+                        : EnsembleModel.stacked(bases, oof, yTrain);
+            }
+
+            double[][] probabilities = new double[xTest.length][ensemble.numClasses()];
+            ensemble.predictProbaBatch(xTest, probabilities);
+            MetricsAccumulator accumulator = MetricsAccumulator.forOutcomes();
+            for (int i = 0; i < xTest.length; i++) {
+                accumulator.add(yTest[i], probabilities[i]);
+            }
+
+            ClassificationMetrics metrics = accumulator.toMetrics();
+            System.out.println("\n=== Ensemble (" + method + "): " + name + " ===");
+            double[] weights = ensemble.getWeights();
+            for (int b = 0; b < bases.size(); b++) {
+                System.out.printf("  %-20s%s%n", bases.get(b).getModelType(),
+                        weights == null ? "" : String.format(" weight %.4f", weights[b]));
+            }
+            accumulator.printProbabilistic();
+            metrics.print();
+            return new TrainedModel(name, "Ensemble", ensemble, metrics);
+        } catch (Exception e) {
+            System.err.println("Ensemble training failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Out-of-fold class probabilities, indexed [base][row][class].
+     */
+    private static double[][][] outOfFoldProbabilities(List<TrainedModel> bases, int folds,
+                                                       double[][] x, int[] y) {
+        int n = x.length;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Random random = new Random(FOLD_SEED);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        int[] foldOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            foldOf[order[i]] = i % folds;
+        }
+
+        double[][][] oof = new double[bases.size()][n][];
+        // Each fold writes only its own held-out rows, so folds can run concurrently
+        IntStream.range(0, folds).parallel().forEach(k -> {
+            int heldOut = 0;
+            for (int i = 0; i < n; i++) {
+                if (foldOf[i] == k) heldOut++;
+            }
+            double[][] xFit = new double[n - heldOut][];
+            int[] yFit = new int[n - heldOut];
+            double[][] xHeld = new double[heldOut][];
+            int[] heldRows = new int[heldOut];
+            int f = 0;
+            int h = 0;
+            for (int i = 0; i < n; i++) {
+                if (foldOf[i] == k) {
+                    xHeld[h] = x[i];
+                    heldRows[h++] = i;
+                } else {
+                    xFit[f] = x[i];
+                    yFit[f++] = y[i];
+                }
+            }
+
+            for (int b = 0; b < bases.size(); b++) {
+                TrainedModel base = bases.get(b);
+                TrainedModel refit = fitQuietly(base.getModelType(), base.getFeatureSetName(), xFit, yFit);
+                double[][] probabilities = new double[heldOut][refit.numClasses()];
+                refit.predictProbaBatch(xHeld, probabilities);
+                for (int r = 0; r < heldOut; r++) {
+                    oof[b][heldRows[r]] = probabilities[r];
+                }
+            }
+        });
+        return oof;
+    }
+
+    /**
+     * Fit a model of the given type without evaluating or printing it, e.g. on a cross-validation fold.
+     */
+    static TrainedModel fitQuietly(String modelType, String name, double[][] x, int[] y) {
+        Object model;
+        switch (modelType) {
+            case "LogisticRegression":
+                model = LogisticRegression.fit(x, y);
+                break;
+            case "OnlineLogistic":
+                model = fitOnlineLogistic(x, y);
+                break;
+            case "RandomForest":
+                RandomForest forest = fitRandomForest(x, y);
+                return new TrainedModel(name, modelType, forest, null, new RandomForestScorer(forest, x));
+            case "LDA":
+                model = LDA.fit(x, y);
+                break;
+            case "GradientBoosting":
+                model = fitGradientBoosting(x, y);
+                break;
+            default:
+                throw new IllegalArgumentException("Cannot refit model type: " + modelType);
+        }
+        return new TrainedModel(name, modelType, model, null);
+    }
+
+    private static OnlineLogisticRegression fitOnlineLogistic(double[][] x, int[] y) {
+        OnlineLogisticRegression model = new OnlineLogisticRegression(
+                x[0].length, 3, ONLINE_LEARNING_RATE, ONLINE_L2);
+        model.fit(x, y, ONLINE_EPOCHS, ONLINE_BATCH_SIZE, 42L);
+        return model;
+    }
+
+    private static GradientBoostedTrees fitGradientBoosting(double[][] x, int[] y) {
+        GradientBoostedTrees model = new GradientBoostedTrees(BOOSTING_MAX_ROUNDS, BOOSTING_LEARNING_RATE,
+                BOOSTING_MAX_DEPTH, BOOSTING_MIN_SAMPLES_LEAF, BOOSTING_VALIDATION_FRACTION, BOOSTING_PATIENCE);
+        model.fit(x, y, 3, FOLD_SEED);
+        return model;
+    }
+
+    private static RandomForest fitRandomForest(double[][] x, int[] y) {
+        return RandomForest.fit(Formula.lhs("label"), toDataFrame(x, y));
+    }
+
     private static int[] predict(smile.classification.Classifier<double[]> model, double[][] x) {
         int[] yPred = new int[x.length];
         for (int i = 0; i < x.length; i++) {
@@ -69,29 +269,16 @@ public final class ModelTrainer {
     }
 
     private static DataFrame toDataFrame(double[][] x, int[] y) {
-        int n = x.length;
         int d = x[0].length;
-        
+
         // Create column names
-        String[] columnNames = new String[y != null && y.length > 0 ? d + 1 : d];
+        String[] columnNames = new String[d];
         for (int i = 0; i < d; i++) {
             columnNames[i] = "x" + i;
         }
-        if (y != null && y.length > 0) {
-            columnNames[d] = "label";
-        }
-        
-        // Create data array with label column if needed
-        if (y != null && y.length > 0) {
-            double[][] dataWithLabel = new double[n][d + 1];
-            for (int i = 0; i < n; i++) {
-                System.arraycopy(x[i], 0, dataWithLabel[i], 0, d);
-                dataWithLabel[i][d] = y[i];
-            }
-            return DataFrame.of(dataWithLabel, columnNames);
-        } else {
-            return DataFrame.of(x, columnNames);
-        }
+
+        // The label must be an integer column for Smile to treat it as a class response
+        return DataFrame.of(x, columnNames).merge(IntVector.of("label", y));
     }
 }
 
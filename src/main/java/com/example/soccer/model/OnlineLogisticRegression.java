@@ -0,0 +1,193 @@
+package com.example.soccer.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Multinomial logistic regression trained with mini-batch Adam and L2 regularization.
+ * Unlike Smile's batch-only fit, the model can be warm-started from a previous copy
+ * and updated with {@link #partialFit} as new matches arrive, so an update costs
+ * O(new matches) instead of a full refit.
+ */
+public class OnlineLogisticRegression implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final double BETA1 = 0.9;
+    private static final double BETA2 = 0.999;
+    private static final double EPSILON = 1e-8;
+
+    private final int numFeatures;
+    private final int numClasses;
+    private final double learningRate;
+    private final double lambda;
+
+    // Row-major numClasses x (numFeatures + 1); the last column of each row is the bias
+    private final double[] weights;
+    // Adam first and second moment estimates, same layout as weights
+    private final double[] firstMoment;
+    private final double[] secondMoment;
+    private long step;
+
+    public OnlineLogisticRegression(int numFeatures, int numClasses, double learningRate, double lambda) {
+        this.numFeatures = numFeatures;
+        this.numClasses = numClasses;
+        this.learningRate = learningRate;
+        this.lambda = lambda;
+        int size = numClasses * (numFeatures + 1);
+        this.weights = new double[size];
+        this.firstMoment = new double[size];
+        this.secondMoment = new double[size];
+    }
+
+    /**
+     * Warm start: copy the weights and optimizer state of a previously trained model.
+     */
+    public OnlineLogisticRegression(OnlineLogisticRegression previous) {
+        this.numFeatures = previous.numFeatures;
+        this.numClasses = previous.numClasses;
+        this.learningRate = previous.learningRate;
+        this.lambda = previous.lambda;
+        this.weights = previous.weights.clone();
+        this.firstMoment = previous.firstMoment.clone();
+        this.secondMoment = previous.secondMoment.clone();
+        this.step = previous.step;
+    }
+
+    /**
+     * Run several epochs of shuffled mini-batch updates over the full data set.
+     */
+    public void fit(double[][] x, int[] y, int epochs, int batchSize, long seed) {
+        int n = x.length;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Random random = new Random(seed);
+        double[] gradient = new double[weights.length];
+        double[] probabilities = new double[numClasses];
+
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = order[i];
+                order[i] = order[j];
+                order[j] = tmp;
+            }
+            for (int from = 0; from < n; from += batchSize) {
+                int to = Math.min(n, from + batchSize);
+                Arrays.fill(gradient, 0.0);
+                for (int b = from; b < to; b++) {
+                    accumulateGradient(x[order[b]], y[order[b]], gradient, probabilities);
+                }
+                applyGradient(gradient, to - from);
+            }
+        }
+    }
+
+    /**
+     * One optimizer step on a mini-batch of new observations.
+     */
+    public void partialFit(double[][] x, int[] y) {
+        if (x.length == 0) {
+            return;
+        }
+        double[] gradient = new double[weights.length];
+        double[] probabilities = new double[numClasses];
+        for (int i = 0; i < x.length; i++) {
+            accumulateGradient(x[i], y[i], gradient, probabilities);
+        }
+        applyGradient(gradient, x.length);
+    }
+
+    /**
+     * One optimizer step on a single observation, for rows streamed from the loader.
+     */
+    public void update(double[] x, int y) {
+        double[] gradient = new double[weights.length];
+        accumulateGradient(x, y, gradient, new double[numClasses]);
+        applyGradient(gradient, 1);
+    }
+
+    public int predict(double[] x) {
+        return predict(x, new double[numClasses]);
+    }
+
+    /**
+     * Predict the class and write the softmax probabilities into {@code probabilities}.
+     */
+    public int predict(double[] x, double[] probabilities) {
+        softmax(x, probabilities);
+        int best = 0;
+        for (int c = 1; c < numClasses; c++) {
+            if (probabilities[c] > probabilities[best]) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    public int numClasses() {
+        return numClasses;
+    }
+
+    public int numFeatures() {
+        return numFeatures;
+    }
+
+    private void accumulateGradient(double[] x, int label, double[] gradient, double[] probabilities) {
+        softmax(x, probabilities);
+        int stride = numFeatures + 1;
+        for (int c = 0; c < numClasses; c++) {
+            double error = probabilities[c] - (c == label ? 1.0 : 0.0);
+            int offset = c * stride;
+            for (int j = 0; j < numFeatures; j++) {
+                gradient[offset + j] += error * x[j];
+            }
+            gradient[offset + numFeatures] += error;
+        }
+    }
+
+    private void applyGradient(double[] gradient, int batchSize) {
+        step++;
+        double correction1 = 1.0 - Math.pow(BETA1, step);
+        double correction2 = 1.0 - Math.pow(BETA2, step);
+        int stride = numFeatures + 1;
+        for (int i = 0; i < weights.length; i++) {
+            double g = gradient[i] / batchSize;
+            // L2 penalty on the coefficients only, not the bias
+            if (i % stride != numFeatures) {
+                g += lambda * weights[i];
+            }
+            firstMoment[i] = BETA1 * firstMoment[i] + (1 - BETA1) * g;
+            secondMoment[i] = BETA2 * secondMoment[i] + (1 - BETA2) * g * g;
+            double mHat = firstMoment[i] / correction1;
+            double vHat = secondMoment[i] / correction2;
+            weights[i] -= learningRate * mHat / (Math.sqrt(vHat) + EPSILON);
+        }
+    }
+
+    private void softmax(double[] x, double[] probabilities) {
+        int stride = numFeatures + 1;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int c = 0; c < numClasses; c++) {
+            int offset = c * stride;
+            double z = weights[offset + numFeatures];
+            for (int j = 0; j < numFeatures; j++) {
+                z += weights[offset + j] * x[j];
+            }
+            probabilities[c] = z;
+            if (z > max) {
+                max = z;
+            }
+        }
+        double sum = 0.0;
+        for (int c = 0; c < numClasses; c++) {
+            probabilities[c] = Math.exp(probabilities[c] - max);
+            sum += probabilities[c];
+        }
+        for (int c = 0; c < numClasses; c++) {
+            probabilities[c] /= sum;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.soccer.model;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU cache of model predictions.
+ * Entries are keyed by the model's version plus the feature vector quantized to a
+ * fixed grid, so repeated queries for the same fixture skip the model entirely.
+ * A retrained or reloaded model has a new version and never sees the old entries,
+ * which simply age out. Thread-safe.
+ */
+public final class PredictionCache {
+    /** Features closer than this are treated as the same input; inputs are normalized to [0, 1]. */
+    public static final double DEFAULT_QUANTUM = 1e-6;
+
+    private final int capacity;
+    private final double quantum;
+    private final LinkedHashMap<Key, Entry> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public PredictionCache(int capacity, double quantum) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.quantum = quantum;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > PredictionCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public PredictionCache(int capacity) {
+        this(capacity, DEFAULT_QUANTUM);
+    }
+
+    public int predict(TrainedModel model, double[] features) {
+        return predict(model, features, null);
+    }
+
+    /**
+     * Cached {@link TrainedModel#predict} result; if {@code probabilities} is not null the
+     * cached {@link TrainedModel#predictProba} output is copied into it.
+     */
+    public int predict(TrainedModel model, double[] features, double[] probabilities) {
+        Key key = new Key(model.getVersion(), quantize(features));
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        if (entry == null) {
+            // Score outside the lock; two threads missing on the same key both compute the same answer
+            double[] computed = new double[model.numClasses()];
+            entry = new Entry(model.predictWithProba(features, computed), computed);
+            synchronized (this) {
+                entries.put(key, entry);
+            }
+        }
+        if (probabilities != null) {
+            System.arraycopy(entry.probabilities, 0, probabilities, 0, entry.probabilities.length);
+        }
+        return entry.label;
+    }
+
+    /**
+     * Drop every entry of the given model, e.g. to free memory right after replacing it.
+     */
+    public synchronized void invalidate(TrainedModel model) {
+        long version = model.getVersion();
+        Iterator<Key> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().version == version) {
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    public synchronized void printStats() {
+        System.out.printf("Prediction cache: %d/%d entries, %d hits, %d misses (%.1f%% hit rate), %d evictions%n",
+                entries.size(), capacity, hits, misses, getHitRate() * 100, evictions);
+    }
+
+    private long[] quantize(double[] features) {
+        long[] grid = new long[features.length];
+        for (int j = 0; j < features.length; j++) {
+            grid[j] = Math.round(features[j] / quantum);
+        }
+        return grid;
+    }
+
+    private static final class Key {
+        final long version;
+        final long[] grid;
+        final int hash;
+
+        Key(long version, long[] grid) {
+            this.version = version;
+            this.grid = grid;
+            this.hash = 31 * Long.hashCode(version) + Arrays.hashCode(grid);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return version == other.version && Arrays.equals(grid, other.grid);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        final int label;
+        final double[] probabilities;
+
+        Entry(int label, double[] probabilities) {
+            this.label = label;
+            this.probabilities = probabilities;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.soccer.model;
+
+import smile.classification.DecisionTree;
+import smile.classification.RandomForest;
+import smile.data.Tuple;
+import smile.data.type.StructType;
+import smile.math.MathEx;
+
+import java.util.Arrays;
+
+/**
+ * Fast scoring path for a Smile RandomForest.
+ * The forest is compiled once into a {@link FlatForest}, so scoring walks flat
+ * arrays over the caller's feature vector instead of tuples and node objects.
+ * If the forest cannot be compiled, or the compiled forest disagrees with Smile on
+ * the rows it is checked against, every row is scored by the Smile trees instead.
+ */
+public final class RandomForestScorer {
+    /** At most this many rows are scored both ways when checking the compiled forest. */
+    private static final int MAX_CHECK_ROWS = 1000;
+    private static final double PROBABILITY_TOLERANCE = 1e-9;
+
+    private final DecisionTree[] trees;
+    private final double[] weights;
+    private final int[] classes;
+    private final StructType schema;
+    // Null when scoring falls back to the Smile trees
+    private final FlatForest flat;
+
+    public RandomForestScorer(RandomForest forest) {
+        this(forest, null);
+    }
+
+    /**
+     * @param checkRows rows, e.g. the training rows, on which the compiled forest must
+     *                  reproduce Smile's labels and probabilities; null to skip the check
+     */
+    public RandomForestScorer(RandomForest forest, double[][] checkRows) {
+        RandomForest.Model[] models = forest.models();
+        this.trees = new DecisionTree[models.length];
+        this.weights = new double[models.length];
+        for (int i = 0; i < models.length; i++) {
+            trees[i] = models[i].tree;
+            weights[i] = models[i].weight;
+        }
+        this.classes = forest.classes();
+        this.schema = forest.schema();
+        this.flat = compileChecked(forest, checkRows);
+    }
+
+    private FlatForest compileChecked(RandomForest forest, double[][] checkRows) {
+        FlatForest compiled;
+        try {
+            compiled = FlatForest.compile(forest);
+        } catch (IllegalStateException | UnsupportedOperationException e) {
+            System.err.println("Cannot compile random forest, scoring with Smile: " + e.getMessage());
+            return null;
+        }
+        if (checkRows == null) {
+            return compiled;
+        }
+        double[] expected = new double[classes.length];
+        double[] actual = new double[classes.length];
+        for (int i = 0; i < Math.min(checkRows.length, MAX_CHECK_ROWS); i++) {
+            double[] row = checkRows[i];
+            boolean agrees = compiled.predict(row) == vote(row)
+                    && compiled.predict(row, actual) == softVote(row, expected);
+            for (int c = 0; agrees && c < classes.length; c++) {
+                agrees = Math.abs(actual[c] - expected[c]) <= PROBABILITY_TOLERANCE;
+            }
+            if (!agrees) {
+                System.err.println("Compiled random forest disagrees with Smile on row " + i
+                        + ", scoring with Smile");
+                return null;
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Majority vote over all trees, identical to {@link RandomForest#predict(Tuple)}.
+     */
+    public int predict(double[] features) {
+        return flat != null ? flat.predict(features) : vote(features);
+    }
+
+    /**
+     * Weighted soft vote, identical to {@link RandomForest#predict(Tuple, double[])}.
+     * Class probabilities are written into {@code posteriori}.
+     */
+    public int predict(double[] features, double[] posteriori) {
+        return flat != null ? flat.predict(features, posteriori) : softVote(features, posteriori);
+    }
+
+    /**
+     * Majority-vote label with the soft-vote probabilities written into {@code posteriori}.
+     */
+    public int predictWithProba(double[] features, double[] posteriori) {
+        if (flat != null) {
+            return flat.predictWithProba(features, posteriori);
+        }
+        softVote(features, posteriori);
+        return vote(features);
+    }
+
+    /**
+     * Score every row of {@code x} into {@code out}.
+     */
+    public void predict(double[][] x, int[] out) {
+        predict(x, 0, x.length, out);
+    }
+
+    /**
+     * Score rows {@code [from, to)} of {@code x} into {@code out}.
+     */
+    public void predict(double[][] x, int from, int to, int[] out) {
+        if (flat != null) {
+            flat.predict(x, from, to, out);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            out[i] = vote(x[i]);
+        }
+    }
+
+    /**
+     * Write class probabilities for rows {@code [from, to)} of {@code x} into the rows of {@code out}.
+     */
+    public void predictProba(double[][] x, int from, int to, double[][] out) {
+        if (flat != null) {
+            flat.predictProba(x, from, to, out);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            softVote(x[i], out[i]);
+        }
+    }
+
+    public int numClasses() {
+        return classes.length;
+    }
+
+    private int vote(double[] features) {
+        Tuple row = Tuple.of(features, schema);
+        int[] votes = new int[classes.length];
+        for (DecisionTree tree : trees) {
+            votes[tree.predict(row)]++;
+        }
+        return classes[MathEx.whichMax(votes)];
+    }
+
+    private int softVote(double[] features, double[] posteriori) {
+        Tuple row = Tuple.of(features, schema);
+        double[] treePosteriori = new double[classes.length];
+        Arrays.fill(posteriori, 0.0);
+        for (int t = 0; t < trees.length; t++) {
+            trees[t].predict(row, treePosteriori);
+            for (int c = 0; c < classes.length; c++) {
+                posteriori[c] += weights[t] * treePosteriori[c];
+            }
+        }
+        MathEx.unitize1(posteriori);
+        return classes[MathEx.whichMax(posteriori)];
+    }
+}
@@ -3,41 +3,214 @@ package com.example.soccer.model;
 import smile.classification.LogisticRegression;
 import smile.classification.RandomForest;
 import smile.classification.LDA;
-import smile.data.DataFrame;
 
-public class TrainedModel {
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+public class TrainedModel implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** Rows scored per task when a batch is split across threads. */
+    private static final int BATCH_CHUNK_SIZE = 1024;
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
     private final String featureSetName;
     private final String modelType;
     private final Object model;
     private final ClassificationMetrics metrics;
+    // Derived from the forest, so rebuilt (without the training-row check) after deserialization instead of stored
+    private transient RandomForestScorer forestScorer;
+    // Unique per instance in this JVM, so caches keyed on it never serve a replaced model
+    private transient long version;
 
     public TrainedModel(String featureSetName, String modelType, Object model, ClassificationMetrics metrics) {
+        this(featureSetName, modelType, model, metrics, createForestScorer(model));
+    }
+
+    /**
+     * A model whose forest scorer was already built, e.g. checked against the forest's training rows.
+     */
+    TrainedModel(String featureSetName, String modelType, Object model, ClassificationMetrics metrics,
+                 RandomForestScorer forestScorer) {
         this.featureSetName = featureSetName;
         this.modelType = modelType;
         this.model = model;
         this.metrics = metrics;
+        this.forestScorer = forestScorer;
+        this.version = VERSIONS.incrementAndGet();
+    }
+
+    private static RandomForestScorer createForestScorer(Object model) {
+        return model instanceof RandomForest ? new RandomForestScorer((RandomForest) model) : null;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        forestScorer = createForestScorer(model);
+        version = VERSIONS.incrementAndGet();
     }
 
     public int predict(double[] features) {
         if (model instanceof LogisticRegression) {
             return ((LogisticRegression) model).predict(features);
-        } else if (model instanceof RandomForest) {
-            DataFrame df = createDataFrameForPrediction(features);
-            return ((RandomForest) model).predict(df.get(0));
+        } else if (forestScorer != null) {
+            return forestScorer.predict(features);
         } else if (model instanceof LDA) {
             return ((LDA) model).predict(features);
+        } else if (model instanceof OnlineLogisticRegression) {
+            return ((OnlineLogisticRegression) model).predict(features);
+        } else if (model instanceof GradientBoostedTrees) {
+            return ((GradientBoostedTrees) model).predict(features);
+        } else if (model instanceof EnsembleModel) {
+            return ((EnsembleModel) model).predict(features);
+        }
+        throw new UnsupportedOperationException("Model type not supported for prediction: " + modelType);
+    }
+
+    /**
+     * Predict the class and write per-class probabilities into {@code probabilities}.
+     */
+    public int predictProba(double[] features, double[] probabilities) {
+        if (model instanceof LogisticRegression) {
+            return ((LogisticRegression) model).predict(features, probabilities);
+        } else if (forestScorer != null) {
+            return forestScorer.predict(features, probabilities);
+        } else if (model instanceof LDA) {
+            return ((LDA) model).predict(features, probabilities);
+        } else if (model instanceof OnlineLogisticRegression) {
+            return ((OnlineLogisticRegression) model).predict(features, probabilities);
+        } else if (model instanceof GradientBoostedTrees) {
+            return ((GradientBoostedTrees) model).predict(features, probabilities);
+        } else if (model instanceof EnsembleModel) {
+            return ((EnsembleModel) model).predict(features, probabilities);
+        }
+        throw new UnsupportedOperationException("Model type not supported for prediction: " + modelType);
+    }
+
+    /**
+     * The label {@link #predict} returns, with the probabilities of {@link #predictProba} written into
+     * {@code probabilities}, scoring the model once.
+     */
+    public int predictWithProba(double[] features, double[] probabilities) {
+        if (forestScorer != null) {
+            // The forest's label is a hard vote, which need not be the arg-max of its probabilities
+            return forestScorer.predictWithProba(features, probabilities);
+        }
+        return predictProba(features, probabilities);
+    }
+
+    public int numClasses() {
+        if (model instanceof LogisticRegression) {
+            return ((LogisticRegression) model).numClasses();
+        } else if (forestScorer != null) {
+            return forestScorer.numClasses();
+        } else if (model instanceof LDA) {
+            return ((LDA) model).numClasses();
+        } else if (model instanceof OnlineLogisticRegression) {
+            return ((OnlineLogisticRegression) model).numClasses();
+        } else if (model instanceof GradientBoostedTrees) {
+            return ((GradientBoostedTrees) model).numClasses();
+        } else if (model instanceof EnsembleModel) {
+            return ((EnsembleModel) model).numClasses();
         }
         throw new UnsupportedOperationException("Model type not supported for prediction: " + modelType);
     }
 
-    private DataFrame createDataFrameForPrediction(double[] features) {
-        // Create a simple DataFrame with one row
-        double[][] data = new double[][]{features};
-        String[] columnNames = new String[features.length];
-        for (int i = 0; i < features.length; i++) {
-            columnNames[i] = "x" + i;
+    /**
+     * Predict every row of {@code x} into {@code out}.
+     */
+    public void predictBatch(double[][] x, int[] out) {
+        predictBatch(x, out, false);
+    }
+
+    /**
+     * Predict every row of {@code x} into {@code out}, optionally splitting the rows
+     * into chunks scored on the common fork-join pool.
+     */
+    public void predictBatch(double[][] x, int[] out, boolean parallel) {
+        checkBatchSize(x.length, out.length);
+        if (model instanceof EnsembleModel) {
+            // The ensemble parallelizes across its base models instead of across rows
+            ((EnsembleModel) model).predictBatch(x, out);
+            return;
+        }
+        if (forestScorer != null) {
+            // Tree-major scoring keeps each tree in cache across the chunk
+            forEachChunk(x.length, parallel, (from, to) -> forestScorer.predict(x, from, to, out));
+            return;
+        }
+        forEachChunk(x.length, parallel, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                out[i] = predict(x[i]);
+            }
+        });
+    }
+
+    /**
+     * Write class probabilities for every row of {@code x} into the rows of {@code out}.
+     */
+    public void predictProbaBatch(double[][] x, double[][] out) {
+        predictProbaBatch(x, out, false);
+    }
+
+    /**
+     * Write class probabilities for every row of {@code x} into the rows of {@code out},
+     * optionally splitting the rows into chunks scored on the common fork-join pool.
+     */
+    public void predictProbaBatch(double[][] x, double[][] out, boolean parallel) {
+        checkBatchSize(x.length, out.length);
+        if (model instanceof EnsembleModel) {
+            ((EnsembleModel) model).predictProbaBatch(x, out);
+            return;
+        }
+        if (forestScorer != null) {
+            forEachChunk(x.length, parallel, (from, to) -> forestScorer.predictProba(x, from, to, out));
+            return;
         }
-        return DataFrame.of(data, columnNames);
+        forEachChunk(x.length, parallel, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                predictProba(x[i], out[i]);
+            }
+        });
+    }
+
+    private static void checkBatchSize(int rows, int outRows) {
+        if (outRows < rows) {
+            throw new IllegalArgumentException(
+                    "Output holds " + outRows + " rows but the batch has " + rows);
+        }
+    }
+
+    private static void forEachChunk(int rows, boolean parallel, ChunkTask task) {
+        if (!parallel || rows <= BATCH_CHUNK_SIZE) {
+            task.run(0, rows);
+            return;
+        }
+        int chunks = (rows + BATCH_CHUNK_SIZE - 1) / BATCH_CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int from = c * BATCH_CHUNK_SIZE;
+            task.run(from, Math.min(rows, from + BATCH_CHUNK_SIZE));
+        });
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask {
+        void run(int from, int to);
+    }
+
+    Object getModel() {
+        return model;
+    }
+
+    /**
+     * Identity of this trained instance; a retrained or reloaded model gets a new version.
+     */
+    public long getVersion() {
+        return version;
     }
 
     public String getFeatureSetName() {
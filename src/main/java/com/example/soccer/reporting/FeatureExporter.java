@@ -0,0 +1,365 @@
+package com.example.soccer.reporting;
+
+import com.example.soccer.db.MatchRecord;
+import com.example.soccer.feature.FeatureBuilder;
+import com.example.soccer.feature.FeatureSet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Export any feature set with its labels for Weka, pandas and other downstream tools.
+ * Rows are encoded straight into a large NIO buffer, and numbers are written as
+ * digits into that buffer without creating a String per value.
+ * Every exported number parses back to exactly the same double.
+ */
+public final class FeatureExporter {
+    /** File magic of the binary columnar format ("SCFB"). */
+    public static final int BINARY_MAGIC = 0x53434642;
+    public static final int BINARY_VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+    private static final String[] CLASS_VALUES = {"home", "draw", "away"};
+    // Magnitudes formatted as scaled longs; 10^k must stay an exact double (k <= 22)
+    private static final double MIN_SCALED = 1e-6;
+    private static final double MAX_SCALED = 1e15;
+    private static final double EXACT_LONG_LIMIT = 9.007199254740992E15;
+    private static final double[] POW10 = new double[23];
+
+    static {
+        POW10[0] = 1.0;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    public enum Format {
+        ARFF(".arff"),
+        ARFF_GZ(".arff.gz"),
+        CSV(".csv"),
+        /**
+         * Little-endian: int magic, int version, int rows, int columns, int name length,
+         * UTF-8 feature set name, then each feature column as rows doubles, then rows int labels.
+         */
+        BINARY(".bin");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Look up a format by name, case-insensitive (e.g. "csv", "arff_gz").
+         */
+        public static Format fromName(String name) {
+            return valueOf(name.trim().toUpperCase().replace('.', '_'));
+        }
+    }
+
+    private FeatureExporter() {
+    }
+
+    public static void export(FeatureSet featureSet, List<MatchRecord> records, Format format, String outputPath)
+            throws IOException {
+        export(featureSet.getName(), featureSet.build(records), FeatureBuilder.buildLabels(records),
+                format, outputPath);
+    }
+
+    /**
+     * Write a feature matrix and its 0/1/2 outcome labels in the given format.
+     */
+    public static void export(String featureSetName, double[][] x, int[] y, Format format, String outputPath)
+            throws IOException {
+        Path path = Paths.get(outputPath);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (WritableByteChannel channel = open(path, format == Format.ARFF_GZ)) {
+            switch (format) {
+                case ARFF:
+                case ARFF_GZ:
+                    writeArff(featureSetName, x, y, new AsciiSink(channel, BUFFER_SIZE));
+                    break;
+                case CSV:
+                    writeCsv(x, y, new AsciiSink(channel, BUFFER_SIZE));
+                    break;
+                case BINARY:
+                    writeBinary(featureSetName, x, y, channel,
+                            ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported format: " + format);
+            }
+        }
+    }
+
+    private static WritableByteChannel open(Path path, boolean gzip) throws IOException {
+        if (gzip) {
+            // Fastest deflate level: the export should stay I/O-bound, not compression-bound
+            return Channels.newChannel(new GZIPOutputStream(Files.newOutputStream(path), GZIP_BUFFER_SIZE) {
+                {
+                    def.setLevel(Deflater.BEST_SPEED);
+                }
+            });
+        }
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void writeArff(String featureSetName, double[][] x, int[] y, AsciiSink out) throws IOException {
+        int numFeatures = numFeatures(x);
+        out.append("@relation soccer_").append(featureSetName.toLowerCase()).append("\n\n");
+        for (int j = 0; j < numFeatures; j++) {
+            out.append("@attribute x").appendLong(j).append(" numeric\n");
+        }
+        out.append("@attribute class {home,draw,away}\n\n@data\n");
+        for (int i = 0; i < x.length; i++) {
+            for (int j = 0; j < numFeatures; j++) {
+                double v = x[i][j];
+                if (Double.isNaN(v)) {
+                    out.append('?');
+                } else {
+                    out.appendDouble(v);
+                }
+                out.append(',');
+            }
+            out.append(CLASS_VALUES[y[i]]).append('\n');
+        }
+        out.flush();
+    }
+
+    private static void writeCsv(double[][] x, int[] y, AsciiSink out) throws IOException {
+        int numFeatures = numFeatures(x);
+        for (int j = 0; j < numFeatures; j++) {
+            out.append('x').appendLong(j).append(',');
+        }
+        out.append("label\n");
+        for (int i = 0; i < x.length; i++) {
+            for (int j = 0; j < numFeatures; j++) {
+                out.appendDouble(x[i][j]).append(',');
+            }
+            out.appendLong(y[i]).append('\n');
+        }
+        out.flush();
+    }
+
+    private static void writeBinary(String featureSetName, double[][] x, int[] y,
+                                    WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        int numFeatures = numFeatures(x);
+        byte[] name = featureSetName.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(BINARY_MAGIC).putInt(BINARY_VERSION).putInt(x.length).putInt(numFeatures)
+                .putInt(name.length).put(name);
+        // Column-major, so a reader can map any single column without touching the others
+        for (int j = 0; j < numFeatures; j++) {
+            for (double[] row : x) {
+                if (buffer.remaining() < Double.BYTES) {
+                    drain(channel, buffer);
+                }
+                buffer.putDouble(row[j]);
+            }
+        }
+        for (int label : y) {
+            if (buffer.remaining() < Integer.BYTES) {
+                drain(channel, buffer);
+            }
+            buffer.putInt(label);
+        }
+        drain(channel, buffer);
+    }
+
+    private static int numFeatures(double[][] x) {
+        return x.length > 0 ? x[0].length : 0;
+    }
+
+    static void drain(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Write the decimal form of {@code v} into {@code scratch} (at least 32 bytes) and return
+     * the length, or -1 to fall back to the JDK's formatting.
+     * The value is first scaled by a power of ten to a long of up to 16 digits; since the long
+     * and the power of ten are both exact doubles, {@code mantissa / 10^k} is exactly what a
+     * parser returns for the printed decimal, so those digits are used when that division gives
+     * back {@code v}. Otherwise 17 correctly rounded significant digits are written, which
+     * always parse back to {@code v}. Trailing zeros are dropped, so 2.5 prints as "2.5".
+     */
+    private static int formatScaled(double v, byte[] scratch) {
+        double magnitude = Math.abs(v);
+        if (v == 0.0) {
+            return 1.0 / v < 0 ? -1 : writeScaled(0, 0, scratch);
+        }
+        if (!(magnitude >= MIN_SCALED && magnitude < MAX_SCALED)) {
+            return -1;
+        }
+        int exponent = (int) Math.floor(Math.log10(magnitude));
+        int decimals = 15 - exponent;
+        double scaled = v * POW10[decimals];
+        if (Math.abs(scaled) >= EXACT_LONG_LIMIT) {
+            decimals--;
+            scaled = v * POW10[decimals];
+        }
+        // The scaling product is rounded, so the right mantissa may be a neighbour of the nearest one
+        long nearest = Math.round(scaled);
+        for (long mantissa = nearest - 1; mantissa <= nearest + 1; mantissa++) {
+            if ((double) mantissa / POW10[decimals] == v) {
+                return writeTrimmed(mantissa, decimals, scratch);
+            }
+        }
+
+        // 17 significant digits always identify a double; fma recovers the exact product to round
+        decimals++;
+        if (decimals >= POW10.length) {
+            return -1;
+        }
+        long mantissa = roundExact(v, POW10[decimals]);
+        if (Math.abs(mantissa) < 1e16) {
+            // log10 overestimated the exponent by one; take one more digit
+            if (++decimals >= POW10.length) {
+                return -1;
+            }
+            mantissa = roundExact(v, POW10[decimals]);
+        }
+        return writeTrimmed(mantissa, decimals, scratch);
+    }
+
+    /**
+     * {@code v * scale} rounded to the nearest long, for products of at least 2^53 (integral doubles).
+     */
+    private static long roundExact(double v, double scale) {
+        double product = v * scale;
+        double error = Math.fma(v, scale, -product);
+        return (long) product + Math.round(error);
+    }
+
+    private static int writeTrimmed(long mantissa, int decimals, byte[] scratch) {
+        while (decimals > 0 && mantissa % 10 == 0) {
+            mantissa /= 10;
+            decimals--;
+        }
+        return writeScaled(mantissa, decimals, scratch);
+    }
+
+    private static int writeScaled(long mantissa, int decimals, byte[] scratch) {
+        boolean negative = mantissa < 0;
+        long magnitude = Math.abs(mantissa);
+        int pos = scratch.length;
+        int digits = 0;
+        while (magnitude > 0 || digits <= decimals) {
+            if (digits == decimals && decimals > 0) {
+                scratch[--pos] = '.';
+            }
+            scratch[--pos] = (byte) ('0' + magnitude % 10);
+            magnitude /= 10;
+            digits++;
+        }
+        if (negative) {
+            scratch[--pos] = '-';
+        }
+        int length = scratch.length - pos;
+        System.arraycopy(scratch, pos, scratch, 0, length);
+        return length;
+    }
+
+    /**
+     * ASCII text writer filling a heap buffer's array directly and draining it into a channel when full.
+     */
+    static final class AsciiSink {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+        private final byte[] bytes;
+        private int position;
+        private final byte[] scratch = new byte[32];
+        private final StringBuilder fallback = new StringBuilder(32);
+
+        AsciiSink(WritableByteChannel channel, int capacity) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(capacity);
+            this.bytes = buffer.array();
+        }
+
+        AsciiSink append(char c) throws IOException {
+            ensure(1);
+            bytes[position++] = (byte) c;
+            return this;
+        }
+
+        AsciiSink append(String s) throws IOException {
+            for (int i = 0; i < s.length(); i++) {
+                append(s.charAt(i));
+            }
+            return this;
+        }
+
+        AsciiSink appendLong(long value) throws IOException {
+            return appendScratch(writeScaled(value, 0, scratch));
+        }
+
+        AsciiSink appendDouble(double v) throws IOException {
+            int length = formatScaled(v, scratch);
+            if (length >= 0) {
+                return appendScratch(length);
+            }
+            // StringBuilder.append(double) formats into the builder without an intermediate String
+            fallback.setLength(0);
+            fallback.append(v);
+            ensure(fallback.length());
+            for (int i = 0; i < fallback.length(); i++) {
+                bytes[position++] = (byte) fallback.charAt(i);
+            }
+            return this;
+        }
+
+        /**
+         * {@code v} rounded to at most {@code decimals} (0 to 15) fraction digits, trailing zeros dropped.
+         */
+        AsciiSink appendRounded(double v, int decimals) throws IOException {
+            double scaled = v * POW10[decimals];
+            if (!(Math.abs(scaled) < EXACT_LONG_LIMIT)) {
+                return appendDouble(v);
+            }
+            return appendScratch(writeTrimmed(Math.round(scaled), decimals, scratch));
+        }
+
+        private AsciiSink appendScratch(int length) throws IOException {
+            ensure(length);
+            System.arraycopy(scratch, 0, bytes, position, length);
+            position += length;
+            return this;
+        }
+
+        void flush() throws IOException {
+            buffer.position(position);
+            drain(channel, buffer);
+            position = 0;
+        }
+
+        private void ensure(int length) throws IOException {
+            if (bytes.length - position < length) {
+                flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.soccer.reporting;
+
+import com.example.soccer.model.TrainedModel;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Run-scoped metrics writer. Trainers hand finished models to {@link #submit}, which only enqueues;
+ * a single background thread drains the queue in batches, measures the serialized model size, and
+ * appends one CSV row per model over a writer kept open for the whole run. Rows carry the
+ * {@link MetricsExporter} columns followed by run id, timestamp, training time and model size.
+ * {@link #close} flushes the queue and writes a JSON summary of the run next to the CSV.
+ */
+public final class MetricsSink {
+    private static final String[] RUN_COLUMNS = {"runId", "timestamp", "trainingSeconds", "modelBytes"};
+    private static final int MAX_BATCH = 64;
+    private static final DateTimeFormatter RUN_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    // Queued by close() after the last submitted model
+    private static final Submission END = new Submission(null, 0, null);
+
+    private final String csvPath;
+    private final String runId;
+    private final Instant startedAt;
+    private final BlockingQueue<Submission> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    // Owned by the writer thread; read by close() after joining it
+    private final List<Result> results = new ArrayList<>();
+    private int batches;
+    private volatile boolean closed;
+
+    private static final class Submission {
+        private final TrainedModel model;
+        private final long trainingNanos;
+        private final Instant timestamp;
+
+        Submission(TrainedModel model, long trainingNanos, Instant timestamp) {
+            this.model = model;
+            this.trainingNanos = trainingNanos;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private static final class Result {
+        private final String modelType;
+        private final String featureSet;
+        private final double accuracy;
+        private final double trainingSeconds;
+        private final long modelBytes;
+
+        Result(String modelType, String featureSet, double accuracy, double trainingSeconds, long modelBytes) {
+            this.modelType = modelType;
+            this.featureSet = featureSet;
+            this.accuracy = accuracy;
+            this.trainingSeconds = trainingSeconds;
+            this.modelBytes = modelBytes;
+        }
+    }
+
+    /**
+     * Start a new run appending to {@code csvPath}. A file written with a different header
+     * (e.g. by an earlier version, before run columns existed) is moved to
+     * {@code <csvPath>.legacy} so the CSV always parses as one table.
+     */
+    public MetricsSink(String csvPath) {
+        this.csvPath = csvPath;
+        this.startedAt = Instant.now();
+        this.runId = LocalDateTime.now().format(RUN_ID_FORMAT)
+                + "-" + String.format("%04x", ThreadLocalRandom.current().nextInt(0x10000));
+        this.writer = new Thread(this::writeLoop, "metrics-sink-" + runId);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    /**
+     * Queue the metrics of a trained model; never blocks on I/O.
+     */
+    public void submit(TrainedModel model, long trainingNanos) {
+        if (closed) {
+            throw new IllegalStateException("Metrics sink for run " + runId + " is closed");
+        }
+        queue.add(new Submission(model, trainingNanos, Instant.now()));
+    }
+
+    /**
+     * Wait until every submitted row is written, then write the run summary. Further calls do nothing.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(END);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while flushing metrics for run " + runId);
+            return;
+        }
+
+        String summaryPath = summaryPath();
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(summaryPath))) {
+            out.write(summaryJson(Instant.now()));
+        } catch (IOException e) {
+            System.err.println("Failed to write metrics run summary: " + e.getMessage());
+            return;
+        }
+        System.out.println("\nMetrics for run " + runId + ": " + results.size() + " models in " + batches
+                + " batches to " + csvPath + ", summary " + summaryPath);
+    }
+
+    private void writeLoop() {
+        BufferedWriter out = null;
+        try {
+            out = openCsv();
+        } catch (IOException e) {
+            System.err.println("Failed to open metrics CSV, rows of run " + runId + " are not written: "
+                    + e.getMessage());
+        }
+
+        List<Submission> batch = new ArrayList<>(MAX_BATCH);
+        StringBuilder text = new StringBuilder(MAX_BATCH * 256);
+        boolean done = false;
+        try {
+            while (!done) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                text.setLength(0);
+                for (Submission submission : batch) {
+                    if (submission == END) {
+                        done = true;
+                        break;
+                    }
+                    appendRow(text, submission);
+                }
+                batch.clear();
+                if (out != null && text.length() > 0) {
+                    try {
+                        out.write(text.toString());
+                        out.flush();
+                        batches++;
+                    } catch (IOException e) {
+                        System.err.println("Failed to export metrics CSV: " + e.getMessage());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to close metrics CSV: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void appendRow(StringBuilder text, Submission submission) {
+        TrainedModel model = submission.model;
+        double trainingSeconds = submission.trainingNanos / 1e9;
+        long modelBytes = serializedSize(model);
+        results.add(new Result(model.getModelType(), model.getFeatureSetName(),
+                model.getMetrics().getAccuracy(), trainingSeconds, modelBytes));
+
+        MetricsExporter.appendMetricColumns(text, model);
+        text.append(',').append(runId)
+                .append(',').append(submission.timestamp)
+                .append(',').append(trainingSeconds)
+                .append(',').append(modelBytes)
+                .append(System.lineSeparator());
+    }
+
+    private BufferedWriter openCsv() throws IOException {
+        File file = new File(csvPath);
+        if (file.getParentFile() != null) {
+            Files.createDirectories(file.getParentFile().toPath());
+        }
+        String header = String.join(",", MetricsExporter.METRIC_COLUMNS) + "," + String.join(",", RUN_COLUMNS);
+        boolean writeHeader = true;
+        if (file.length() > 0) {
+            String existing;
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                existing = reader.readLine();
+            }
+            if (header.equals(existing)) {
+                writeHeader = false;
+            } else {
+                File legacy = new File(csvPath + ".legacy");
+                Files.move(file.toPath(), legacy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                System.out.println("Moved metrics CSV with an older layout to " + legacy.getPath());
+            }
+        }
+
+        BufferedWriter out = new BufferedWriter(new FileWriter(file, true));
+        if (writeHeader) {
+            out.write(header);
+            out.newLine();
+            out.flush();
+        }
+        return out;
+    }
+
+    /**
+     * Serialized size of a trained model (as the registry stores it) in bytes, or -1 if it cannot be serialized.
+     */
+    static long serializedSize(Object model) {
+        CountingStream counter = new CountingStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+            out.writeObject(model);
+        } catch (IOException e) {
+            return -1;
+        }
+        return counter.count;
+    }
+
+    private static final class CountingStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    private String summaryPath() {
+        File parent = new File(csvPath).getAbsoluteFile().getParentFile();
+        return new File(parent, "metrics_run_" + runId + ".json").getPath();
+    }
+
+    private String summaryJson(Instant finishedAt) {
+        double totalTraining = 0;
+        Result best = null;
+        for (Result result : results) {
+            totalTraining += result.trainingSeconds;
+            if (best == null || result.accuracy > best.accuracy) {
+                best = result;
+            }
+        }
+
+        StringBuilder json = new StringBuilder(256 + results.size() * 160);
+        json.append("{\n");
+        json.append("  \"runId\": ").append(quote(runId)).append(",\n");
+        json.append("  \"startedAt\": ").append(quote(startedAt.toString())).append(",\n");
+        json.append("  \"finishedAt\": ").append(quote(finishedAt.toString())).append(",\n");
+        json.append("  \"csv\": ").append(quote(csvPath)).append(",\n");
+        json.append("  \"models\": ").append(results.size()).append(",\n");
+        json.append("  \"totalTrainingSeconds\": ").append(totalTraining).append(",\n");
+        json.append("  \"best\": ").append(best == null ? "null" : resultJson(best)).append(",\n");
+        json.append("  \"results\": [");
+        for (int i = 0; i < results.size(); i++) {
+            json.append(i == 0 ? "\n    " : ",\n    ").append(resultJson(results.get(i)));
+        }
+        json.append(results.isEmpty() ? "]\n" : "\n  ]\n");
+        json.append("}\n");
+        return json.toString();
+    }
+
+    private static String resultJson(Result result) {
+        return "{\"modelType\": " + quote(result.modelType)
+                + ", \"featureSet\": " + quote(result.featureSet)
+                + ", \"accuracy\": " + result.accuracy
+                + ", \"trainingSeconds\": " + result.trainingSeconds
+                + ", \"modelBytes\": " + result.modelBytes + "}";
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
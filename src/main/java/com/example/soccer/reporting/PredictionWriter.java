@@ -0,0 +1,233 @@
+package com.example.soccer.reporting;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams batch predictions to disk one chunk at a time, one row per (fixture, model) with the
+ * predicted outcome, the class probabilities and the edge of each probability over the bookmaker's
+ * implied probability. Only the current chunk is ever held in memory.
+ */
+public final class PredictionWriter implements Closeable {
+    /** File magic of the binary prediction format ("SCPB"). */
+    public static final int BINARY_MAGIC = 0x53435042;
+    public static final int BINARY_VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int DECIMALS = 6;
+    private static final String[] CLASS_VALUES = {"home", "draw", "away"};
+    private static final String CSV_HEADER =
+            "fixture,modelType,featureSet,prediction,pHome,pDraw,pAway,edgeHome,edgeDraw,edgeAway\n";
+
+    public enum Format {
+        CSV(".csv"),
+        /**
+         * Little-endian: int magic, int version, int models, then per model the UTF-8 model type and
+         * feature set, each as int length plus bytes. Then one row group per chunk: int rows, long fixture
+         * column, int model index column, int label column, three probability columns and three edge columns
+         * (home, draw, away) of rows doubles each. An empty row group ends the file.
+         */
+        BINARY(".bin");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * The format matching a file name's extension; anything but ".bin" is written as CSV.
+         */
+        public static Format forPath(String path) {
+            return path.toLowerCase().endsWith(BINARY.extension) ? BINARY : CSV;
+        }
+    }
+
+    private final Format format;
+    private final FileChannel channel;
+    private final FeatureExporter.AsciiSink text;
+    private final ByteBuffer buffer;
+    private final String[] modelTypes;
+    private final String[] featureSets;
+    private long rowsWritten;
+
+    /**
+     * Create (or truncate) {@code outputPath} for predictions of the given models, in the format of its extension.
+     */
+    public PredictionWriter(String outputPath, String[] modelTypes, String[] featureSets) throws IOException {
+        this.format = Format.forPath(outputPath);
+        this.modelTypes = modelTypes.clone();
+        this.featureSets = featureSets.clone();
+        Path path = Paths.get(outputPath);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        if (format == Format.CSV) {
+            this.text = new FeatureExporter.AsciiSink(channel, BUFFER_SIZE);
+            this.buffer = null;
+            text.append(CSV_HEADER);
+        } else {
+            this.text = null;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(BINARY_MAGIC).putInt(BINARY_VERSION).putInt(modelTypes.length);
+            for (int m = 0; m < modelTypes.length; m++) {
+                putString(modelTypes[m]);
+                putString(featureSets[m]);
+            }
+        }
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /**
+     * Append the first {@code rows} fixtures of a chunk.
+     *
+     * @param fixtures      fixture ids
+     * @param implied       per fixture, the bookmaker's home/draw/away probabilities with the margin removed
+     * @param probabilities per model, per fixture, the home/draw/away probabilities; null for a model
+     *                      that could not score this chunk
+     */
+    public void write(long[] fixtures, double[][] implied, double[][][] probabilities, int rows) throws IOException {
+        int scoredModels = 0;
+        for (double[][] model : probabilities) {
+            if (model != null) {
+                scoredModels++;
+            }
+        }
+        if (format == Format.CSV) {
+            writeCsv(fixtures, implied, probabilities, rows);
+        } else {
+            writeRowGroup(fixtures, implied, probabilities, rows, rows * scoredModels);
+        }
+        rowsWritten += (long) rows * scoredModels;
+    }
+
+    private void writeCsv(long[] fixtures, double[][] implied, double[][][] probabilities, int rows)
+            throws IOException {
+        for (int i = 0; i < rows; i++) {
+            for (int m = 0; m < probabilities.length; m++) {
+                if (probabilities[m] == null) {
+                    continue;
+                }
+                double[] p = probabilities[m][i];
+                text.appendLong(fixtures[i]).append(',').append(modelTypes[m]).append(',')
+                        .append(featureSets[m]).append(',').append(CLASS_VALUES[argMax(p)]);
+                for (int k = 0; k < 3; k++) {
+                    text.append(',').appendRounded(p[k], DECIMALS);
+                }
+                for (int k = 0; k < 3; k++) {
+                    text.append(',').appendRounded(p[k] - implied[i][k], DECIMALS);
+                }
+                text.append('\n');
+            }
+        }
+    }
+
+    private void writeRowGroup(long[] fixtures, double[][] implied, double[][][] probabilities, int rows, int size)
+            throws IOException {
+        ensure(Integer.BYTES);
+        buffer.putInt(size);
+        // Column by column, each pass visiting the (fixture, model) rows in the same order
+        for (int i = 0; i < rows; i++) {
+            for (double[][] model : probabilities) {
+                if (model != null) {
+                    ensure(Long.BYTES);
+                    buffer.putLong(fixtures[i]);
+                }
+            }
+        }
+        for (int i = 0; i < rows; i++) {
+            for (int m = 0; m < probabilities.length; m++) {
+                if (probabilities[m] != null) {
+                    ensure(Integer.BYTES);
+                    buffer.putInt(m);
+                }
+            }
+        }
+        for (int i = 0; i < rows; i++) {
+            for (double[][] model : probabilities) {
+                if (model != null) {
+                    ensure(Integer.BYTES);
+                    buffer.putInt(argMax(model[i]));
+                }
+            }
+        }
+        for (int k = 0; k < 3; k++) {
+            for (int i = 0; i < rows; i++) {
+                for (double[][] model : probabilities) {
+                    if (model != null) {
+                        ensure(Double.BYTES);
+                        buffer.putDouble(model[i][k]);
+                    }
+                }
+            }
+        }
+        for (int k = 0; k < 3; k++) {
+            for (int i = 0; i < rows; i++) {
+                for (double[][] model : probabilities) {
+                    if (model != null) {
+                        ensure(Double.BYTES);
+                        buffer.putDouble(model[i][k] - implied[i][k]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int argMax(double[] p) {
+        int best = 0;
+        for (int k = 1; k < 3; k++) {
+            if (p[k] > p[best]) {
+                best = k;
+            }
+        }
+        return best;
+    }
+
+    private void putString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensure(Integer.BYTES + bytes.length);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            FeatureExporter.drain(channel, buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (format == Format.CSV) {
+                text.flush();
+            } else {
+                ensure(Integer.BYTES);
+                buffer.putInt(0);
+                FeatureExporter.drain(channel, buffer);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
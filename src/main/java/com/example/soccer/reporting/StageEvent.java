@@ -0,0 +1,38 @@
+package com.example.soccer.reporting;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one {@link StageProfiler} span, so stages line up with GC, allocation
+ * and lock events in JDK Mission Control. Costs nothing unless a recording is running.
+ */
+@Name("com.example.soccer.Stage")
+@Label("Pipeline Stage")
+@Category({"Soccer", "Pipeline"})
+@Description("One instrumented stage or model fit of the prediction pipeline")
+final class StageEvent extends Event {
+    @Label("Stage")
+    String stage;
+
+    @Label("Depth")
+    int depth;
+
+    @Label("CPU Time")
+    @Description("Process CPU time over all threads")
+    @Timespan(Timespan.NANOSECONDS)
+    long cpuTime;
+
+    @Label("Allocated")
+    @Description("Heap growth plus bytes freed by GC, at least the driving thread's own allocation")
+    @DataAmount(DataAmount.BYTES)
+    long allocated;
+
+    @Label("GC Count")
+    long gcCount;
+}
@@ -0,0 +1,354 @@
+package com.example.soccer.reporting;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wall time, CPU time, allocation and GC counters per pipeline stage. Each {@link #start} opens a
+ * {@link Span}; closing it records the deltas and commits a {@link StageEvent} to Flight Recorder.
+ * Spans nest (e.g. one per model fit inside the training stage) and are opened and closed by the
+ * driving thread in LIFO order. CPU time is process-wide. Allocation is the growth of heap usage plus
+ * the bytes every collection during the span freed (from GC notifications), so it counts all threads,
+ * including pool threads that exit before the span closes. Heap usage only moves when a thread takes
+ * a new allocation buffer, so a small stage can show no growth; allocation is therefore at least the
+ * driving thread's own allocated bytes. It is -1 (printed "n/a") if the JVM reports neither.
+ */
+public final class StageProfiler {
+    private static final String[] CSV_COLUMNS = {
+            "stage", "depth", "wallMillis", "cpuMillis", "allocatedBytes", "gcCount", "gcMillis"
+    };
+
+    // Longest wait at span close for notifications of collections that already happened
+    private static final long GC_NOTIFICATION_WAIT_MILLIS = 200;
+
+    private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final List<Span> finished = new ArrayList<>();
+    private final long createdAt = System.nanoTime();
+    private int depth;
+    private int opened;
+
+    /**
+     * Counters of one stage; the getters are valid once the span is closed.
+     */
+    public final class Span implements AutoCloseable {
+        private final String name;
+        private final int depth;
+        private final int order;
+        private final StageEvent event = new StageEvent();
+        private final long startWall;
+        private final long startCpu;
+        private final long startAllocated;
+        private final long startThreadAllocated;
+        private final long startGcCount;
+        private final long startGcMillis;
+        private long wallNanos;
+        private long cpuNanos;
+        private long allocatedBytes;
+        private long gcCount;
+        private long gcMillis;
+        private boolean closed;
+
+        private Span(String name, int depth, int order) {
+            this.name = name;
+            this.depth = depth;
+            this.order = order;
+            event.begin();
+            this.startGcCount = gcCount();
+            this.startGcMillis = gcMillis();
+            this.startAllocated = allocatedBytes();
+            this.startThreadAllocated = threadAllocatedBytes();
+            this.startCpu = cpuNanos();
+            this.startWall = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            wallNanos = System.nanoTime() - startWall;
+            cpuNanos = delta(startCpu, cpuNanos());
+            allocatedBytes = Math.max(delta(startAllocated, allocatedBytes()),
+                    delta(startThreadAllocated, threadAllocatedBytes()));
+            gcCount = gcCount() - startGcCount;
+            gcMillis = gcMillis() - startGcMillis;
+            event.end();
+            if (event.shouldCommit()) {
+                event.stage = name;
+                event.depth = depth;
+                event.cpuTime = cpuNanos;
+                event.allocated = allocatedBytes;
+                event.gcCount = gcCount;
+                event.commit();
+            }
+            finish(this);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        /** Process CPU time over all threads, or -1 if the JVM does not report it. */
+        public long getCpuNanos() {
+            return cpuNanos;
+        }
+
+        /** Bytes allocated on the heap by all threads, or -1 if the JVM reports neither counter. */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public long getGcCount() {
+            return gcCount;
+        }
+
+        public long getGcMillis() {
+            return gcMillis;
+        }
+    }
+
+    /**
+     * Open a span nested in the currently open one, if any.
+     */
+    public Span start(String name) {
+        return new Span(name, depth++, opened++);
+    }
+
+    private void finish(Span span) {
+        depth--;
+        finished.add(span);
+    }
+
+    /**
+     * Closed spans in the order they were opened.
+     */
+    public List<Span> getSpans() {
+        List<Span> spans = new ArrayList<>(finished);
+        spans.sort((a, b) -> Integer.compare(a.order, b.order));
+        return spans;
+    }
+
+    /**
+     * Print one row per span, children indented under their stage, with each top-level stage's
+     * share of the total wall time.
+     */
+    public void printBreakdown() {
+        List<Span> spans = getSpans();
+        long topLevelWall = 0;
+        for (Span span : spans) {
+            if (span.depth == 0) {
+                topLevelWall += span.wallNanos;
+            }
+        }
+
+        System.out.println("\n========================================");
+        System.out.println("STAGE BREAKDOWN");
+        System.out.println("========================================");
+        System.out.printf("%-40s %10s %10s %6s %12s %5s %8s %6s%n",
+                "Stage", "Wall ms", "CPU ms", "CPU/W", "Alloc MB", "GCs", "GC ms", "Share");
+        System.out.println("-".repeat(104));
+        for (Span span : spans) {
+            String label = "  ".repeat(span.depth) + span.name;
+            if (label.length() > 40) {
+                label = label.substring(0, 37) + "...";
+            }
+            String share = span.depth == 0 && topLevelWall > 0
+                    ? String.format("%5.1f%%", 100.0 * span.wallNanos / topLevelWall) : "";
+            System.out.printf("%-40s %10.1f %10s %6s %12s %5d %8d %6s%n",
+                    label,
+                    span.wallNanos / 1e6,
+                    span.cpuNanos < 0 ? "n/a" : String.format("%.1f", span.cpuNanos / 1e6),
+                    span.cpuNanos < 0 || span.wallNanos == 0 ? "n/a"
+                            : String.format("%.2f", (double) span.cpuNanos / span.wallNanos),
+                    span.allocatedBytes < 0 ? "n/a" : String.format("%.1f", span.allocatedBytes / (1024.0 * 1024.0)),
+                    span.gcCount,
+                    span.gcMillis,
+                    share);
+        }
+        System.out.printf("Instrumented stages: %.1f ms of %.1f ms since start%n",
+                topLevelWall / 1e6, (System.nanoTime() - createdAt) / 1e6);
+    }
+
+    /**
+     * Write every span as a CSV row (overwriting {@code path}), for comparing runs or releases.
+     */
+    public void exportCsv(String path) throws IOException {
+        File file = new File(path);
+        if (file.getParentFile() != null) {
+            Files.createDirectories(file.getParentFile().toPath());
+        }
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.newLine();
+            StringBuilder line = new StringBuilder(128);
+            for (Span span : getSpans()) {
+                line.setLength(0);
+                line.append('"').append(span.name.replace("\"", "\"\"")).append('"')
+                        .append(',').append(span.depth)
+                        .append(',').append(span.wallNanos / 1e6)
+                        .append(',').append(span.cpuNanos < 0 ? "" : String.valueOf(span.cpuNanos / 1e6))
+                        .append(',').append(span.allocatedBytes < 0 ? "" : String.valueOf(span.allocatedBytes))
+                        .append(',').append(span.gcCount)
+                        .append(',').append(span.gcMillis);
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        }
+    }
+
+    private long cpuNanos() {
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    private long allocatedBytes() {
+        return HeapAccounting.allocatedBytes(gcCount());
+    }
+
+    // Bytes the calling (driving) thread allocated so far, exact rather than per allocation buffer
+    private long threadAllocatedBytes() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+            if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    // -1 if the counter is unavailable
+    private static long delta(long start, long end) {
+        return start < 0 || end < 0 ? -1 : Math.max(0, end - start);
+    }
+
+    /**
+     * JVM-wide running total of heap allocation: current heap usage plus every byte freed by a
+     * collection so far. Each collector's notifications add the bytes that collection freed.
+     */
+    private static final class HeapAccounting {
+        private static final List<MemoryPoolMXBean> HEAP_POOLS = new ArrayList<>();
+        private static final Set<String> HEAP_POOL_NAMES = new HashSet<>();
+        private static final AtomicLong FREED = new AtomicLong();
+        private static final AtomicLong NOTIFIED = new AtomicLong();
+        private static final boolean AVAILABLE;
+        // Collections that happened before the listeners were registered and are never notified
+        private static final long BASELINE;
+
+        static {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    HEAP_POOLS.add(pool);
+                    HEAP_POOL_NAMES.add(pool.getName());
+                }
+            }
+            boolean available = !HEAP_POOLS.isEmpty();
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (!(collector instanceof NotificationEmitter)) {
+                    available = false;
+                    continue;
+                }
+                ((NotificationEmitter) collector).addNotificationListener((notification, handback) -> {
+                    if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                        GarbageCollectionNotificationInfo info =
+                                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                        FREED.addAndGet(freed(info.getGcInfo().getMemoryUsageBeforeGc(),
+                                info.getGcInfo().getMemoryUsageAfterGc()));
+                        NOTIFIED.incrementAndGet();
+                    }
+                }, null, null);
+            }
+            AVAILABLE = available;
+            // Read after registering: a collection in between is both notified and in the baseline,
+            // which only ends a wait early, whereas reading first could leave one never notified
+            long baseline = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                baseline += Math.max(0, collector.getCollectionCount());
+            }
+            BASELINE = baseline;
+        }
+
+        private HeapAccounting() {
+        }
+
+        /**
+         * Total bytes allocated since the listeners were registered, or -1 if unavailable.
+         * {@code collections} is the number of collections the JVM reports since it started;
+         * notifications arrive asynchronously, so wait briefly for those not yet counted.
+         */
+        static long allocatedBytes(long collections) {
+            if (!AVAILABLE) {
+                return -1;
+            }
+            long deadline = System.nanoTime() + GC_NOTIFICATION_WAIT_MILLIS * 1_000_000;
+            while (NOTIFIED.get() < collections - BASELINE && System.nanoTime() < deadline) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            long used = 0;
+            for (MemoryPoolMXBean pool : HEAP_POOLS) {
+                used += pool.getUsage().getUsed();
+            }
+            return used + FREED.get();
+        }
+
+        private static long freed(Map<String, MemoryUsage> before, Map<String, MemoryUsage> after) {
+            long freed = 0;
+            for (Map.Entry<String, MemoryUsage> entry : before.entrySet()) {
+                MemoryUsage usage = after.get(entry.getKey());
+                if (usage != null && HEAP_POOL_NAMES.contains(entry.getKey())) {
+                    freed += entry.getValue().getUsed() - usage.getUsed();
+                }
+            }
+            return freed;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.soccer.sequence;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Order-k Markov model of each team's W/D/L sequence, learned incrementally.
+ * The context is the team's last k results as a base-3 code, and transitions are
+ * counted in primitive tables per team and per league. Predictions back off from the
+ * team's counts to the league's counts for the same context, and from those to the
+ * league's overall result rates, each with {@code smoothing} pseudo-counts.
+ * Both {@link #predict} and {@link #record} are O(1).
+ */
+public final class MarkovTransitionModel {
+    private final int order;
+    private final int contexts;
+    private final double smoothing;
+    private final Map<Integer, TeamState> teams = new HashMap<>();
+    private final Map<Integer, int[]> leagues = new HashMap<>();
+
+    /**
+     * @param order     number of previous results forming the context (0 = result rates only)
+     * @param smoothing pseudo-count weight given to the next coarser estimate
+     */
+    public MarkovTransitionModel(int order, double smoothing) {
+        if (order < 0 || order > SequenceMiner.MAX_N || smoothing <= 0) {
+            throw new IllegalArgumentException("Require 0 <= order <= " + SequenceMiner.MAX_N + " and smoothing > 0");
+        }
+        this.order = order;
+        this.smoothing = smoothing;
+        int size = 1;
+        for (int i = 0; i < order; i++) {
+            size *= 3;
+        }
+        this.contexts = size;
+    }
+
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * Write the probabilities of the team's next result being W, D and L into {@code out}.
+     */
+    public void predict(int leagueId, int teamId, double[] out) {
+        // League table: contexts x 3 transition counts followed by 3 overall result counts
+        int[] league = leagues.get(leagueId);
+        int base = contexts * 3;
+        for (int o = 0; o < 3; o++) {
+            out[o] = league == null ? 1.0 / 3
+                    : (league[base + o] + 1.0) / (league[base] + league[base + 1] + league[base + 2] + 3.0);
+        }
+
+        TeamState team = teams.get(teamId);
+        if (team == null || team.length < order) {
+            return;
+        }
+        int row = team.context * 3;
+        double teamTotal = team.counts[row] + team.counts[row + 1] + team.counts[row + 2] + smoothing;
+        // A league with no results yet (e.g. the team's history was recorded in another league) has no
+        // context counts, so the team's counts are smoothed straight toward the overall rates
+        double leagueTotal = league == null ? 0 : league[row] + league[row + 1] + league[row + 2] + smoothing;
+        for (int o = 0; o < 3; o++) {
+            double prior = league == null ? out[o] : (league[row + o] + smoothing * out[o]) / leagueTotal;
+            out[o] = (team.counts[row + o] + smoothing * prior) / teamTotal;
+        }
+    }
+
+    /**
+     * Learn one result (SequenceMiner.WIN, DRAW or LOSS) of the team.
+     */
+    public void record(int leagueId, int teamId, int outcome) {
+        int[] league = leagues.computeIfAbsent(leagueId, id -> new int[contexts * 3 + 3]);
+        TeamState team = teams.computeIfAbsent(teamId, id -> new TeamState(contexts * 3));
+        if (team.length == order) {
+            team.counts[team.context * 3 + outcome]++;
+            league[team.context * 3 + outcome]++;
+        }
+        league[contexts * 3 + outcome]++;
+        team.context = (team.context * 3 + outcome) % contexts;
+        team.length = Math.min(team.length + 1, order);
+    }
+
+    private static final class TeamState {
+        private final int[] counts;
+        private int context;
+        private int length;
+
+        private TeamState(int size) {
+            this.counts = new int[size];
+        }
+    }
+}
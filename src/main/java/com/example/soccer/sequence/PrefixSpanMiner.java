@@ -0,0 +1,344 @@
+package com.example.soccer.sequence;
+
+import com.example.soccer.db.MatchRow;
+import com.example.soccer.db.MatchScanBus;
+import com.example.soccer.db.MatchScanConsumer;
+
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Gapped sequential pattern mining (PrefixSpan with pseudo-projected databases) over
+ * per team-season match sequences.
+ * Each match is one event combining the outcome, the venue and a goal-margin bucket
+ * (0, 1 or 2+ goals), e.g. "W@H:1" for a one-goal home win.
+ * A pattern occurs in a sequence if its events appear in order with at most
+ * {@code maxGap} other matches between consecutive events; its support is the number of
+ * team-seasons it occurs in. Extensions are only explored from frequent prefixes, so
+ * infrequent branches are pruned without being enumerated.
+ */
+public final class PrefixSpanMiner {
+    public static final int HOME = 0;
+    public static final int AWAY = 1;
+    public static final int MAX_MARGIN_BUCKET = 2;
+    public static final int ALPHABET_SIZE = 3 * 2 * (MAX_MARGIN_BUCKET + 1);
+
+    private static final char[] OUTCOMES = {'W', 'D', 'L'};
+    private static final char[] VENUES = {'H', 'A'};
+
+    private final int minSupport;
+    private final int maxGap;
+    private final int maxLength;
+
+    /**
+     * A frequent pattern with the outcomes of the matches that directly follow its occurrences.
+     */
+    public static final class Pattern {
+        private final int[] events;
+        private final int support;
+        private final int[] nextOutcomes;
+
+        Pattern(int[] events, int support, int[] nextOutcomes) {
+            this.events = events;
+            this.support = support;
+            this.nextOutcomes = nextOutcomes;
+        }
+
+        public int[] getEvents() {
+            return events.clone();
+        }
+
+        public int length() {
+            return events.length;
+        }
+
+        /** Number of team-seasons containing the pattern. */
+        public int getSupport() {
+            return support;
+        }
+
+        /**
+         * W/D/L counts of the match right after each occurrence, indexed by
+         * {@link SequenceMiner#WIN}, {@link SequenceMiner#DRAW} and {@link SequenceMiner#LOSS}.
+         */
+        public int[] getNextOutcomes() {
+            return nextOutcomes.clone();
+        }
+
+        public int getNextTotal() {
+            return nextOutcomes[0] + nextOutcomes[1] + nextOutcomes[2];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < events.length; i++) {
+                if (i > 0) {
+                    sb.append(' ');
+                }
+                sb.append(describe(events[i]));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * @param minSupport minimum number of team-seasons a pattern must occur in (at least 1)
+     * @param maxGap     maximum number of matches allowed between consecutive pattern events (0 = contiguous)
+     * @param maxLength  maximum number of events in a pattern
+     */
+    public PrefixSpanMiner(int minSupport, int maxGap, int maxLength) {
+        if (minSupport < 1 || maxGap < 0 || maxLength < 1) {
+            throw new IllegalArgumentException("Require minSupport >= 1, maxGap >= 0 and maxLength >= 1");
+        }
+        this.minSupport = minSupport;
+        this.maxGap = maxGap;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Event code of one match from a team's perspective.
+     */
+    public static int encode(int outcome, int venue, int goalMargin) {
+        int bucket = Math.min(Math.abs(goalMargin), MAX_MARGIN_BUCKET);
+        return (outcome * 2 + venue) * (MAX_MARGIN_BUCKET + 1) + bucket;
+    }
+
+    public static int outcomeOf(int event) {
+        return event / (2 * (MAX_MARGIN_BUCKET + 1));
+    }
+
+    /**
+     * Readable form of an event, e.g. "W@H:1" or "D@A:0"; the top margin bucket prints as "2+".
+     */
+    public static String describe(int event) {
+        int bucket = event % (MAX_MARGIN_BUCKET + 1);
+        int venue = (event / (MAX_MARGIN_BUCKET + 1)) % 2;
+        return OUTCOMES[outcomeOf(event)] + "@" + VENUES[venue] + ":" + bucket
+                + (bucket == MAX_MARGIN_BUCKET ? "+" : "");
+    }
+
+    /**
+     * Build one event sequence per (team, season), each ordered by match date.
+     */
+    public static List<byte[]> buildTeamSeasonSequences() throws SQLException {
+        TeamSeasonCollector collector = new TeamSeasonCollector();
+        new MatchScanBus().register(collector).run();
+        return collector.getSequences();
+    }
+
+    /**
+     * Scan stage collecting one event sequence per (team, season), to share a {@link MatchScanBus} pass.
+     */
+    public static final class TeamSeasonCollector implements MatchScanConsumer {
+        private final Map<String, ByteArrayBuilder> buffers = new LinkedHashMap<>();
+
+        @Override
+        public void accept(MatchRow row) {
+            int margin = row.getHomeGoals() - row.getAwayGoals();
+            // Outcome 0/1/2 is home win/draw/away win, i.e. W/D/L for the home team and L/D/W for the away team
+            int homeOutcome = row.getOutcome();
+            int awayOutcome = 2 - homeOutcome;
+            buffers.computeIfAbsent(row.getHomeTeamId() + "|" + row.getSeason(), key -> new ByteArrayBuilder())
+                    .add((byte) encode(homeOutcome, HOME, margin));
+            buffers.computeIfAbsent(row.getAwayTeamId() + "|" + row.getSeason(), key -> new ByteArrayBuilder())
+                    .add((byte) encode(awayOutcome, AWAY, margin));
+        }
+
+        public List<byte[]> getSequences() {
+            List<byte[]> sequences = new ArrayList<>(buffers.size());
+            for (ByteArrayBuilder buffer : buffers.values()) {
+                sequences.add(buffer.toArray());
+            }
+            return sequences;
+        }
+    }
+
+    /**
+     * Mine every frequent pattern of up to {@code maxLength} events, in depth-first prefix order.
+     */
+    public List<Pattern> mine(List<byte[]> sequences) {
+        byte[][] db = sequences.toArray(new byte[0][]);
+
+        // The initial projection of the empty prefix: every sequence "ends" just before position 0
+        Projection root = new Projection(db.length, db.length);
+        for (int s = 0; s < db.length; s++) {
+            root.startSequence(s);
+            root.addPosition(-1);
+        }
+        root.finish();
+
+        List<Pattern> patterns = new ArrayList<>();
+        grow(db, root, new int[maxLength], 0, patterns);
+        return patterns;
+    }
+
+    /**
+     * Extend the prefix of length {@code depth} by every event that is frequent in its projection.
+     * For the empty prefix any position may start the pattern; afterwards the next event must lie
+     * within {@code maxGap + 1} positions of some end position of the prefix.
+     */
+    private void grow(byte[][] db, Projection projection, int[] prefix, int depth, List<Pattern> patterns) {
+        Projection[] extensions = new Projection[ALPHABET_SIZE];
+        int[] support = new int[ALPHABET_SIZE];
+        int[] lastSequence = new int[ALPHABET_SIZE];
+        Arrays.fill(lastSequence, -1);
+
+        for (int p = 0; p < projection.size; p++) {
+            int s = projection.sequences[p];
+            byte[] seq = db[s];
+            int window = depth == 0 ? seq.length : maxGap + 1;
+            // End positions are ascending, so scan the union of their windows once, left to right
+            int scanned = -1;
+            for (int k = projection.offsets[p]; k < projection.offsets[p + 1]; k++) {
+                int end = projection.positions[k];
+                int from = Math.max(end + 1, scanned + 1);
+                int to = (int) Math.min((long) end + window, seq.length - 1);
+                for (int i = from; i <= to; i++) {
+                    int event = seq[i];
+                    if (lastSequence[event] != s) {
+                        lastSequence[event] = s;
+                        support[event]++;
+                        if (extensions[event] == null) {
+                            extensions[event] = new Projection(projection.size, projection.positions.length);
+                        }
+                        extensions[event].startSequence(s);
+                    }
+                    extensions[event].addPosition(i);
+                }
+                scanned = Math.max(scanned, to);
+            }
+        }
+
+        for (int event = 0; event < ALPHABET_SIZE; event++) {
+            if (support[event] < minSupport) {
+                continue;
+            }
+            Projection extension = extensions[event];
+            extension.finish();
+            prefix[depth] = event;
+            patterns.add(new Pattern(Arrays.copyOf(prefix, depth + 1), support[event], nextOutcomes(db, extension)));
+            if (depth + 1 < maxLength) {
+                grow(db, extension, prefix, depth + 1, patterns);
+            }
+        }
+    }
+
+    private static int[] nextOutcomes(byte[][] db, Projection projection) {
+        int[] counts = new int[3];
+        for (int p = 0; p < projection.size; p++) {
+            byte[] seq = db[projection.sequences[p]];
+            for (int k = projection.offsets[p]; k < projection.offsets[p + 1]; k++) {
+                int next = projection.positions[k] + 1;
+                if (next < seq.length) {
+                    counts[outcomeOf(seq[next])]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Mine the team-season sequences and print the most supported patterns of at least two
+     * events, each with the distribution of the following result.
+     *
+     * @param minSupportFraction minimum support as a fraction of all team-seasons
+     */
+    public static void printFrequentPatterns(double minSupportFraction, int maxGap, int maxLength, int topK)
+            throws SQLException {
+        printFrequentPatterns(buildTeamSeasonSequences(), minSupportFraction, maxGap, maxLength, topK);
+    }
+
+    /**
+     * As {@link #printFrequentPatterns(double, int, int, int)} over already collected sequences.
+     */
+    public static void printFrequentPatterns(List<byte[]> sequences, double minSupportFraction, int maxGap,
+                                             int maxLength, int topK) {
+        int minSupport = Math.max(1, (int) Math.ceil(minSupportFraction * sequences.size()));
+
+        long start = System.nanoTime();
+        List<Pattern> patterns = new PrefixSpanMiner(minSupport, maxGap, maxLength).mine(sequences);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println();
+        System.out.println("========================================");
+        System.out.println("PREFIXSPAN: TOP " + topK + " PATTERNS (support >= " + minSupport
+                + ", gap <= " + maxGap + ", length <= " + maxLength + ")");
+        System.out.println("========================================");
+        System.out.printf("%d team-seasons, %d frequent patterns in %.2f s%n", sequences.size(), patterns.size(), seconds);
+
+        List<Pattern> multiStep = new ArrayList<>();
+        for (Pattern pattern : patterns) {
+            if (pattern.length() >= 2 && pattern.getNextTotal() > 0) {
+                multiStep.add(pattern);
+            }
+        }
+        multiStep.sort((a, b) -> Integer.compare(b.getSupport(), a.getSupport()));
+
+        System.out.printf("%-36s %8s %8s %8s %8s%n", "Pattern", "Support", "Next W", "Next D", "Next L");
+        for (int i = 0; i < Math.min(topK, multiStep.size()); i++) {
+            Pattern pattern = multiStep.get(i);
+            int[] next = pattern.nextOutcomes;
+            double total = pattern.getNextTotal();
+            System.out.printf("%-36s %8d %7.1f%% %7.1f%% %7.1f%%%n", pattern, pattern.getSupport(),
+                    100 * next[0] / total, 100 * next[1] / total, 100 * next[2] / total);
+        }
+    }
+
+    /**
+     * Pseudo-projected database: for each sequence containing the prefix, the ascending
+     * positions where an occurrence of the prefix ends, stored as flat arrays.
+     */
+    private static final class Projection {
+        private int[] sequences;
+        private int[] offsets;
+        private int[] positions;
+        private int size;
+        private int count;
+
+        Projection(int sequenceCapacity, int positionCapacity) {
+            this.sequences = new int[Math.max(1, Math.min(sequenceCapacity, 16))];
+            this.offsets = new int[sequences.length + 1];
+            this.positions = new int[Math.max(1, Math.min(positionCapacity, 64))];
+        }
+
+        void startSequence(int s) {
+            if (size == sequences.length) {
+                sequences = Arrays.copyOf(sequences, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2 + 1);
+            }
+            offsets[size] = count;
+            sequences[size++] = s;
+        }
+
+        void addPosition(int position) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = position;
+        }
+
+        void finish() {
+            offsets[size] = count;
+        }
+    }
+
+    /**
+     * Growable byte array for one team-season while the scan is running.
+     */
+    private static final class ByteArrayBuilder {
+        private byte[] data = new byte[64];
+        private int size;
+
+        void add(byte event) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = event;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
@@ -1,110 +1,282 @@
 package com.example.soccer.sequence;
 
-import com.example.soccer.db.SQLiteConnectionFactory;
+import com.example.soccer.db.MatchRow;
+import com.example.soccer.db.MatchScanBus;
+import com.example.soccer.db.MatchScanConsumer;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * Simple sequence mining over team match outcomes.
  * Builds per-team sequences of W/D/L ordered by match date and finds
  * the most frequent n-gram patterns.
+ * Outcomes are stored as one byte per match (0 = W, 1 = D, 2 = L), and an n-gram is
+ * counted by its base-3 code (first outcome most significant) in a dense {@code int[3^n]}.
  */
 public final class SequenceMiner {
+    public static final byte WIN = 0;
+    public static final byte DRAW = 1;
+    public static final byte LOSS = 2;
+
+    /** Longest n-gram that can be counted; 3^12 counters take 2 MB. */
+    public static final int MAX_N = 12;
+
+    private static final char[] SYMBOLS = {'W', 'D', 'L'};
+    private static final int INITIAL_CAPACITY = 64;
 
     private SequenceMiner() {
     }
 
     /**
      * Build ordered sequences of outcomes for each team.
-     * W = win, D = draw, L = loss from that team's perspective.
+     * W = win, D = draw, L = loss from that team's perspective, encoded as
+     * {@link #WIN}, {@link #DRAW} and {@link #LOSS}.
      */
-    public static Map<Integer, List<Character>> buildTeamSequences() throws SQLException {
-        String sql = """
-                SELECT
-                    date,
-                    home_team_api_id,
-                    away_team_api_id,
-                    home_team_goal,
-                    away_team_goal
-                FROM Match
-                ORDER BY date
-                """;
-
-        Map<Integer, List<Character>> sequences = new HashMap<>();
-
-        try (Connection conn = SQLiteConnectionFactory.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                int homeTeamId = rs.getInt(2);
-                int awayTeamId = rs.getInt(3);
-                int homeGoals = rs.getInt(4);
-                int awayGoals = rs.getInt(5);
-
-                char homeOutcome;
-                char awayOutcome;
-                if (homeGoals > awayGoals) {
-                    homeOutcome = 'W';
-                    awayOutcome = 'L';
-                } else if (homeGoals < awayGoals) {
-                    homeOutcome = 'L';
-                    awayOutcome = 'W';
-                } else {
-                    homeOutcome = 'D';
-                    awayOutcome = 'D';
-                }
+    public static Map<Integer, byte[]> buildTeamSequences() throws SQLException {
+        TeamSequenceCollector collector = new TeamSequenceCollector();
+        new MatchScanBus().register(collector).run();
+        return collector.getSequences();
+    }
+
+    /**
+     * Scan stage collecting every team's outcome sequence, to share a {@link MatchScanBus} pass.
+     */
+    public static final class TeamSequenceCollector implements MatchScanConsumer {
+        private final Map<Integer, SequenceBuffer> buffers = new HashMap<>();
 
-                sequences.computeIfAbsent(homeTeamId, id -> new ArrayList<>()).add(homeOutcome);
-                sequences.computeIfAbsent(awayTeamId, id -> new ArrayList<>()).add(awayOutcome);
+        @Override
+        public void accept(MatchRow row) {
+            // Outcome 0/1/2 is home win/draw/away win, i.e. W/D/L for the home team and L/D/W for the away team
+            byte homeOutcome = (byte) row.getOutcome();
+            byte awayOutcome = (byte) (2 - homeOutcome);
+            buffers.computeIfAbsent(row.getHomeTeamId(), id -> new SequenceBuffer()).add(homeOutcome);
+            buffers.computeIfAbsent(row.getAwayTeamId(), id -> new SequenceBuffer()).add(awayOutcome);
+        }
+
+        public Map<Integer, byte[]> getSequences() {
+            Map<Integer, byte[]> sequences = new HashMap<>();
+            for (Map.Entry<Integer, SequenceBuffer> e : buffers.entrySet()) {
+                sequences.put(e.getKey(), e.getValue().toArray());
             }
+            return sequences;
         }
+    }
 
-        return sequences;
+    /**
+     * Count every n-gram for all n in {@code [minN, maxN]} in a single pass over the sequences.
+     * {@code counts[n][code]} is the number of occurrences of the n-gram with that base-3 code;
+     * rows below {@code minN} are null.
+     */
+    public static int[][] countNGrams(Map<Integer, byte[]> sequences, int minN, int maxN) {
+        return countNGrams(sequences, minN, maxN, false);
+    }
+
+    /**
+     * As {@link #countNGrams(Map, int, int)}, optionally splitting the teams across the
+     * common fork-join pool. Each split counts into its own arrays and the partial counts
+     * are summed when the splits join, so the result does not depend on the partitioning.
+     * Callers opt in; the pipeline counts sequentially until a speedup is measured on a
+     * multi-core machine with {@code SequenceBenchmark}.
+     */
+    public static int[][] countNGrams(Map<Integer, byte[]> sequences, int minN, int maxN, boolean parallel) {
+        if (minN < 1 || maxN < minN || maxN > MAX_N) {
+            throw new IllegalArgumentException("n-gram range must satisfy 1 <= minN <= maxN <= " + MAX_N);
+        }
+        Stream<byte[]> teams = sequences.values().stream();
+        if (parallel) {
+            teams = teams.parallel();
+        }
+        return teams.collect(() -> new NGramCounter(minN, maxN), NGramCounter::add, NGramCounter::merge).counts;
     }
 
     /**
      * Mine frequent n-gram patterns across all team sequences.
      */
-    public static Map<String, Integer> mineNGrams(Map<Integer, List<Character>> sequences, int n) {
+    public static Map<String, Integer> mineNGrams(Map<Integer, byte[]> sequences, int n) {
+        int[] codes = countNGrams(sequences, n, n)[n];
         Map<String, Integer> counts = new HashMap<>();
-        for (List<Character> seq : sequences.values()) {
-            if (seq.size() < n) continue;
-            for (int i = 0; i <= seq.size() - n; i++) {
-                StringBuilder sb = new StringBuilder(n);
-                for (int j = 0; j < n; j++) {
-                    sb.append(seq.get(i + j));
-                }
-                String pattern = sb.toString();
-                counts.merge(pattern, 1, Integer::sum);
+        for (int code = 0; code < codes.length; code++) {
+            if (codes[code] > 0) {
+                counts.put(decode(code, n), codes[code]);
             }
         }
         return counts;
     }
 
+    /**
+     * The W/D/L string of an n-gram code.
+     */
+    public static String decode(int code, int n) {
+        char[] pattern = new char[n];
+        for (int i = n - 1; i >= 0; i--) {
+            pattern[i] = SYMBOLS[code % 3];
+            code /= 3;
+        }
+        return new String(pattern);
+    }
+
     public static void printTopPatterns(int n, int topK) throws SQLException {
-        System.out.println();
-        System.out.println("========================================");
-        System.out.println("SEQUENCE MINING: TOP " + topK + " PATTERNS (n=" + n + ")");
-        System.out.println("========================================");
+        printTopPatterns(n, n, topK);
+    }
 
-        Map<Integer, List<Character>> sequences = buildTeamSequences();
-        Map<String, Integer> counts = mineNGrams(sequences, n);
+    /**
+     * Print the most frequent patterns for every n in {@code [minN, maxN]}, counted in one pass.
+     */
+    public static void printTopPatterns(int minN, int maxN, int topK) throws SQLException {
+        printTopPatterns(buildTeamSequences(), minN, maxN, topK);
+    }
 
-        List<Map.Entry<String, Integer>> list = new ArrayList<>(counts.entrySet());
-        list.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+    /**
+     * As {@link #printTopPatterns(int, int, int)} over already collected sequences.
+     */
+    public static void printTopPatterns(Map<Integer, byte[]> sequences, int minN, int maxN, int topK) {
+        int[][] counts = countNGrams(sequences, minN, maxN);
+
+        for (int n = minN; n <= maxN; n++) {
+            System.out.println();
+            System.out.println("========================================");
+            System.out.println("SEQUENCE MINING: TOP " + topK + " PATTERNS (n=" + n + ")");
+            System.out.println("========================================");
 
-        int printed = 0;
-        for (Map.Entry<String, Integer> e : list) {
-            System.out.printf("Pattern %s : %d occurrences%n", e.getKey(), e.getValue());
-            printed++;
-            if (printed >= topK) break;
+            for (int code : topCodes(counts[n], topK)) {
+                System.out.printf("Pattern %s : %d occurrences%n", decode(code, n), counts[n][code]);
+            }
         }
     }
-}
 
+    /**
+     * Codes of the {@code topK} highest non-zero counts, most frequent first (ties by code).
+     * Keeps a bounded min-heap of the best {@code topK} codes seen so far, so only
+     * O(3^n log topK) work is done instead of sorting every pattern.
+     */
+    public static int[] topCodes(int[] counts, int topK) {
+        int[] heap = new int[Math.max(0, topK)];
+        int size = 0;
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] == 0) {
+                continue;
+            }
+            if (size < heap.length) {
+                heap[size] = code;
+                siftUp(heap, size++, counts);
+            } else if (size > 0 && ranksAbove(code, heap[0], counts)) {
+                heap[0] = code;
+                siftDown(heap, size, counts);
+            }
+        }
+        // Pop the weakest remaining code into the last free slot until the heap is empty
+        int[] top = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            top[i] = heap[0];
+            heap[0] = heap[i];
+            siftDown(heap, i, counts);
+        }
+        return top;
+    }
+
+    private static boolean ranksAbove(int a, int b, int[] counts) {
+        return counts[a] > counts[b] || (counts[a] == counts[b] && a < b);
+    }
+
+    private static void siftUp(int[] heap, int i, int[] counts) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!ranksAbove(heap[parent], heap[i], counts)) {
+                return;
+            }
+            int tmp = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = tmp;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, int[] counts) {
+        int i = 0;
+        while (true) {
+            int weakest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && ranksAbove(heap[weakest], heap[left], counts)) {
+                weakest = left;
+            }
+            if (right < size && ranksAbove(heap[weakest], heap[right], counts)) {
+                weakest = right;
+            }
+            if (weakest == i) {
+                return;
+            }
+            int tmp = heap[weakest];
+            heap[weakest] = heap[i];
+            heap[i] = tmp;
+            i = weakest;
+        }
+    }
+
+    /**
+     * Dense n-gram counts for one range of n, filled one team sequence at a time.
+     */
+    private static final class NGramCounter {
+        private final int minN;
+        private final int maxN;
+        private final int[] modulus;
+        private final int[][] counts;
+
+        NGramCounter(int minN, int maxN) {
+            this.minN = minN;
+            this.maxN = maxN;
+            this.modulus = new int[maxN + 1];
+            this.counts = new int[maxN + 1][];
+            modulus[0] = 1;
+            for (int n = 1; n <= maxN; n++) {
+                modulus[n] = modulus[n - 1] * 3;
+                if (n >= minN) {
+                    counts[n] = new int[modulus[n]];
+                }
+            }
+        }
+
+        void add(byte[] seq) {
+            // Rolling code of the last maxN outcomes; its low n base-3 digits are the last n-gram
+            int code = 0;
+            for (int i = 0; i < seq.length; i++) {
+                code = (code * 3 + seq[i]) % modulus[maxN];
+                int available = Math.min(i + 1, maxN);
+                for (int n = minN; n <= available; n++) {
+                    counts[n][code % modulus[n]]++;
+                }
+            }
+        }
 
+        void merge(NGramCounter other) {
+            for (int n = minN; n <= maxN; n++) {
+                int[] target = counts[n];
+                int[] source = other.counts[n];
+                for (int code = 0; code < target.length; code++) {
+                    target[code] += source[code];
+                }
+            }
+        }
+    }
 
+    /**
+     * Growable byte array for one team's outcomes while the scan is running.
+     */
+    private static final class SequenceBuffer {
+        private byte[] data = new byte[INITIAL_CAPACITY];
+        private int size;
+
+        void add(byte outcome) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = outcome;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
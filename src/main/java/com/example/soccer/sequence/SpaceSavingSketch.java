@@ -0,0 +1,212 @@
+package com.example.soccer.sequence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Space-Saving heavy-hitter sketch over long keys with a fixed number of counters.
+ * While a key is monitored its count is exact from the time it was (re)admitted; a new key
+ * evicts the smallest counter and inherits its count as the possible overestimate, so any key
+ * whose true frequency exceeds {@code total / capacity} is guaranteed to be monitored.
+ * Counters sit in a min-heap with a primitive open-addressing index, so an update is
+ * O(log capacity) and memory never grows past the capacity given at construction.
+ */
+public final class SpaceSavingSketch {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final int capacity;
+    private final long[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    // heap[i] is a counter slot; position[slot] is its index in the heap
+    private final int[] heap;
+    private final int[] position;
+    private final long[] tableKeys;
+    private final int[] tableSlots;
+    private final int tableMask;
+    private int size;
+    private long total;
+
+    /**
+     * A monitored key with its estimated count; the true count lies in [count - error, count].
+     */
+    public static final class Entry {
+        private final long key;
+        private final long count;
+        private final long error;
+
+        Entry(long key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        /** Guaranteed minimum number of occurrences. */
+        public long getGuaranteedCount() {
+            return count - error;
+        }
+    }
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.keys = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        int tableSize = Integer.highestOneBit(capacity * 4 - 1) << 1;
+        this.tableKeys = new long[tableSize];
+        this.tableSlots = new int[tableSize];
+        this.tableMask = tableSize - 1;
+        Arrays.fill(tableKeys, EMPTY);
+    }
+
+    /**
+     * Count one occurrence of {@code key} (any value except {@link Long#MIN_VALUE}).
+     */
+    public void offer(long key) {
+        total++;
+        int slot = find(key);
+        if (slot < 0) {
+            if (size < capacity) {
+                slot = size;
+                heap[size] = slot;
+                position[slot] = size;
+                size++;
+                counts[slot] = 0;
+                errors[slot] = 0;
+                siftUp(size - 1);
+            } else {
+                // Replace the smallest counter; its count bounds how often the new key may have been missed
+                slot = heap[0];
+                remove(keys[slot]);
+                errors[slot] = counts[slot];
+            }
+            keys[slot] = key;
+            insert(key, slot);
+        }
+        counts[slot]++;
+        siftDown(position[slot]);
+    }
+
+    /**
+     * The {@code k} largest counters, highest count first.
+     */
+    public List<Entry> top(int k) {
+        Integer[] slots = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = i;
+        }
+        Arrays.sort(slots, (a, b) -> Long.compare(counts[b], counts[a]));
+        List<Entry> entries = new ArrayList<>(Math.min(k, size));
+        for (int i = 0; i < Math.min(k, size); i++) {
+            int slot = slots[i];
+            entries.add(new Entry(keys[slot], counts[slot], errors[slot]));
+        }
+        return entries;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Number of keys offered so far. */
+    public long getTotal() {
+        return total;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (counts[heap[parent]] <= counts[heap[i]]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && counts[heap[left]] < counts[heap[smallest]]) {
+                smallest = left;
+            }
+            if (right < size && counts[heap[right]] < counts[heap[smallest]]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+        position[heap[i]] = i;
+        position[heap[j]] = j;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int find(long key) {
+        for (int i = hash(key) & tableMask; tableKeys[i] != EMPTY; i = (i + 1) & tableMask) {
+            if (tableKeys[i] == key) {
+                return tableSlots[i];
+            }
+        }
+        return -1;
+    }
+
+    private void insert(long key, int slot) {
+        int i = hash(key) & tableMask;
+        while (tableKeys[i] != EMPTY) {
+            i = (i + 1) & tableMask;
+        }
+        tableKeys[i] = key;
+        tableSlots[i] = slot;
+    }
+
+    private void remove(long key) {
+        int i = hash(key) & tableMask;
+        while (tableKeys[i] != key) {
+            i = (i + 1) & tableMask;
+        }
+        // Backward-shift deletion keeps every remaining key reachable from its home bucket
+        int hole = i;
+        for (int j = (hole + 1) & tableMask; tableKeys[j] != EMPTY; j = (j + 1) & tableMask) {
+            int home = hash(tableKeys[j]) & tableMask;
+            if (((j - home) & tableMask) >= ((j - hole) & tableMask)) {
+                tableKeys[hole] = tableKeys[j];
+                tableSlots[hole] = tableSlots[j];
+                hole = j;
+            }
+        }
+        tableKeys[hole] = EMPTY;
+    }
+}
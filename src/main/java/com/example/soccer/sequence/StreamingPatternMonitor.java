@@ -0,0 +1,180 @@
+package com.example.soccer.sequence;
+
+import com.example.soccer.db.MatchRow;
+import com.example.soccer.db.MatchScanBus;
+import com.example.soccer.db.MatchScanConsumer;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Incremental W/D/L pattern monitor for matches arriving one at a time.
+ * Each team keeps only its last {@code maxN} results as a rolling base-3 code; every new
+ * result completes one n-gram per tracked length, which is counted in a global and a
+ * per-league {@link SpaceSavingSketch}. Top-K queries read the sketches directly, so they
+ * never rescan the match history. Each sketch has a fixed number of counters however many
+ * matches or pattern lengths are tracked, and a team costs two ints.
+ */
+public final class StreamingPatternMonitor implements MatchScanConsumer {
+    private final int minN;
+    private final int maxN;
+    private final int capacity;
+    private final int[] modulus;
+    // Key offset per length, so the codes of different lengths never collide in a sketch
+    private final long[] offset;
+    private final SpaceSavingSketch global;
+    private final Map<Integer, SpaceSavingSketch> leagues = new HashMap<>();
+    private final Map<Integer, int[]> teams = new HashMap<>();
+    private long matches;
+
+    /**
+     * A frequent pattern reported by the monitor; the true count lies in [count - error, count].
+     */
+    public static final class PatternCount {
+        private final String pattern;
+        private final long count;
+        private final long error;
+
+        PatternCount(String pattern, long count, long error) {
+            this.pattern = pattern;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+
+    /**
+     * @param capacity counters per sketch; patterns more frequent than 1/capacity of a sketch's
+     *                 updates are always reported
+     */
+    public StreamingPatternMonitor(int minN, int maxN, int capacity) {
+        if (minN < 1 || maxN < minN || maxN > SequenceMiner.MAX_N) {
+            throw new IllegalArgumentException("n-gram range must satisfy 1 <= minN <= maxN <= " + SequenceMiner.MAX_N);
+        }
+        this.minN = minN;
+        this.maxN = maxN;
+        this.capacity = capacity;
+        this.modulus = new int[maxN + 1];
+        this.offset = new long[maxN + 2];
+        modulus[0] = 1;
+        for (int n = 1; n <= maxN; n++) {
+            modulus[n] = modulus[n - 1] * 3;
+        }
+        for (int n = 1; n <= maxN + 1; n++) {
+            offset[n] = offset[n - 1] + modulus[n - 1];
+        }
+        this.global = new SpaceSavingSketch(capacity);
+    }
+
+    @Override
+    public void accept(MatchRow row) {
+        observeMatch(row.getLeagueId(), row.getHomeTeamId(), row.getAwayTeamId(), row.getHomeGoals(), row.getAwayGoals());
+    }
+
+    /**
+     * Ingest one finished match.
+     */
+    public void observeMatch(int leagueId, int homeTeamId, int awayTeamId, int homeGoals, int awayGoals) {
+        int homeOutcome = homeGoals > awayGoals ? SequenceMiner.WIN
+                : homeGoals < awayGoals ? SequenceMiner.LOSS : SequenceMiner.DRAW;
+        observe(leagueId, homeTeamId, homeOutcome);
+        observe(leagueId, awayTeamId, 2 - homeOutcome);
+        matches++;
+    }
+
+    /**
+     * Ingest one result (SequenceMiner.WIN, DRAW or LOSS) of a team.
+     */
+    public void observe(int leagueId, int teamId, int outcome) {
+        // {code of the last maxN results, number of results seen (capped at maxN)}
+        int[] window = teams.computeIfAbsent(teamId, id -> new int[2]);
+        window[0] = (window[0] * 3 + outcome) % modulus[maxN];
+        window[1] = Math.min(window[1] + 1, maxN);
+        SpaceSavingSketch league = leagues.computeIfAbsent(leagueId, id -> new SpaceSavingSketch(capacity));
+        for (int n = minN; n <= window[1]; n++) {
+            long key = offset[n] + window[0] % modulus[n];
+            global.offer(key);
+            league.offer(key);
+        }
+    }
+
+    /**
+     * Most frequent patterns over all leagues.
+     */
+    public List<PatternCount> topPatterns(int k) {
+        return decode(global.top(k));
+    }
+
+    /**
+     * Most frequent patterns in one league (empty if the league has not been seen).
+     */
+    public List<PatternCount> topPatterns(int leagueId, int k) {
+        SpaceSavingSketch league = leagues.get(leagueId);
+        return league == null ? new ArrayList<>() : decode(league.top(k));
+    }
+
+    public long getMatches() {
+        return matches;
+    }
+
+    private List<PatternCount> decode(List<SpaceSavingSketch.Entry> entries) {
+        List<PatternCount> patterns = new ArrayList<>(entries.size());
+        for (SpaceSavingSketch.Entry entry : entries) {
+            int n = 1;
+            while (entry.getKey() >= offset[n + 1]) {
+                n++;
+            }
+            String pattern = SequenceMiner.decode((int) (entry.getKey() - offset[n]), n);
+            patterns.add(new PatternCount(pattern, entry.getCount(), entry.getError()));
+        }
+        return patterns;
+    }
+
+    /**
+     * Replay the match history in date order into a new monitor, e.g. to warm it up before live updates.
+     */
+    public static StreamingPatternMonitor fromDatabase(int minN, int maxN, int capacity) throws SQLException {
+        StreamingPatternMonitor monitor = new StreamingPatternMonitor(minN, maxN, capacity);
+        new MatchScanBus().register(monitor).run();
+        return monitor;
+    }
+
+    /**
+     * Print the global top-K patterns and the top-K of every league.
+     */
+    public void printTopPatterns(int k) {
+        System.out.println();
+        System.out.println("========================================");
+        System.out.println("STREAMING PATTERNS: TOP " + k + " (n=" + minN + ".." + maxN + ", "
+                + capacity + " counters per sketch)");
+        System.out.println("========================================");
+        System.out.println("Matches ingested: " + matches);
+        printPatterns("All leagues", topPatterns(k));
+        for (int leagueId : new TreeMap<>(leagues).keySet()) {
+            printPatterns("League " + leagueId, topPatterns(leagueId, k));
+        }
+    }
+
+    private static void printPatterns(String title, List<PatternCount> patterns) {
+        System.out.println("\n" + title + ":");
+        for (PatternCount pattern : patterns) {
+            System.out.printf("  Pattern %-12s : %d occurrences (max overcount %d)%n",
+                    pattern.getPattern(), pattern.getCount(), pattern.getError());
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package com.example.soccer.serving;
+
+import com.example.soccer.db.MatchRecord;
+import com.example.soccer.feature.FeatureNormalizer;
+import com.example.soccer.feature.FeatureSet;
+import com.example.soccer.model.TrainedModel;
+import com.example.soccer.reporting.PredictionWriter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Offline scoring of whole fixture lists with every loaded model. Fixtures are read from a CSV file
+ * or a SQLite table whose columns are named like the fields of the HTTP service (see
+ * {@link FixtureFields}), plus an optional integer {@code id}; other columns are ignored. The input
+ * is processed in chunks: each chunk is read, its features are built and normalized once per feature
+ * set, every model scores the whole chunk in parallel, and the predictions are appended through a
+ * {@link PredictionWriter} before the next chunk is read, so memory stays bounded by the chunk size.
+ */
+public final class BatchScorer {
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+    public static final String DEFAULT_TABLE = "Fixture";
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final String ID_COLUMN = "id";
+    private static final int MAX_REPORTED_ERRORS = 5;
+
+    private final List<TrainedModel> models;
+    private final Map<String, FeatureNormalizer.MinMax> normalization;
+    private final int chunkSize;
+    private final String[] featureSets;
+    // Index into featureSets of each model's feature set
+    private final int[] modelFeatureSet;
+
+    /**
+     * Totals of one scoring run.
+     */
+    public static final class Summary {
+        private final long fixtures;
+        private final long rejected;
+        private final long predictions;
+        private final int chunks;
+        private final long readNanos;
+        private final long featureNanos;
+        private final long scoreNanos;
+        private final long writeNanos;
+        private final long totalNanos;
+
+        Summary(long fixtures, long rejected, long predictions, int chunks,
+                long readNanos, long featureNanos, long scoreNanos, long writeNanos, long totalNanos) {
+            this.fixtures = fixtures;
+            this.rejected = rejected;
+            this.predictions = predictions;
+            this.chunks = chunks;
+            this.readNanos = readNanos;
+            this.featureNanos = featureNanos;
+            this.scoreNanos = scoreNanos;
+            this.writeNanos = writeNanos;
+            this.totalNanos = totalNanos;
+        }
+
+        public long getFixtures() {
+            return fixtures;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getPredictions() {
+            return predictions;
+        }
+
+        public double getSeconds() {
+            return totalNanos / 1e9;
+        }
+
+        public void print() {
+            double seconds = Math.max(getSeconds(), 1e-9);
+            System.out.printf("Scored %d fixtures (%d rejected) in %d chunks: %d predictions in %.2f s%n",
+                    fixtures, rejected, chunks, predictions, getSeconds());
+            System.out.printf("  %-10s %8.2f s%n", "read", readNanos / 1e9);
+            System.out.printf("  %-10s %8.2f s%n", "features", featureNanos / 1e9);
+            System.out.printf("  %-10s %8.2f s%n", "score", scoreNanos / 1e9);
+            System.out.printf("  %-10s %8.2f s%n", "write", writeNanos / 1e9);
+            System.out.printf("Throughput: %.0f fixtures/s, %.0f predictions/s%n",
+                    fixtures / seconds, predictions / seconds);
+        }
+    }
+
+    public BatchScorer(List<TrainedModel> models, Map<String, FeatureNormalizer.MinMax> normalization,
+                       int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.models = new ArrayList<>(models);
+        this.normalization = normalization;
+        this.chunkSize = chunkSize;
+        Set<String> names = new LinkedHashSet<>();
+        for (TrainedModel model : this.models) {
+            names.add(model.getFeatureSetName());
+        }
+        this.featureSets = names.toArray(new String[0]);
+        this.modelFeatureSet = new int[this.models.size()];
+        List<String> nameList = List.of(featureSets);
+        for (int m = 0; m < modelFeatureSet.length; m++) {
+            modelFeatureSet[m] = nameList.indexOf(this.models.get(m).getFeatureSetName());
+        }
+    }
+
+    /**
+     * Score every fixture of {@code inputPath} into {@code outputPath} (binary if it ends in ".bin",
+     * CSV otherwise). A path ending in ".csv" is read as CSV with a header row; any other file is
+     * opened as a SQLite database and {@code table} is read from it. Rows that are not valid
+     * fixtures are skipped and counted.
+     */
+    public Summary score(String inputPath, String table, String outputPath) throws IOException, SQLException {
+        if (!new File(inputPath).isFile()) {
+            throw new IOException("Fixture file not found: " + inputPath);
+        }
+        String[] modelTypes = new String[models.size()];
+        String[] modelFeatureSets = new String[models.size()];
+        for (int m = 0; m < models.size(); m++) {
+            modelTypes[m] = models.get(m).getModelType();
+            modelFeatureSets[m] = models.get(m).getFeatureSetName();
+        }
+
+        // Buffers reused by every chunk
+        List<MatchRecord> records = new ArrayList<>(chunkSize);
+        long[] ids = new long[chunkSize];
+        double[][] implied = new double[chunkSize][3];
+        double[][][] probabilities = new double[models.size()][][];
+        double[][][] scored = new double[models.size()][][];
+        int[] failures = new int[models.size()];
+
+        long fixtures = 0;
+        long rejected = 0;
+        long predictions;
+        int chunks = 0;
+        long readNanos = 0;
+        long featureNanos = 0;
+        long scoreNanos = 0;
+        long writeNanos = 0;
+        long start = System.nanoTime();
+
+        try (FixtureSource source = open(inputPath, table);
+             PredictionWriter writer = new PredictionWriter(outputPath, modelTypes, modelFeatureSets)) {
+            boolean more = true;
+            while (more) {
+                long t0 = System.nanoTime();
+                records.clear();
+                while (records.size() < chunkSize && (more = source.next())) {
+                    try {
+                        MatchRecord record = FixtureFields.toMatch(source.values);
+                        ids[records.size()] = source.id;
+                        records.add(record);
+                    } catch (IllegalArgumentException e) {
+                        if (rejected++ < MAX_REPORTED_ERRORS) {
+                            System.err.println("Skipping fixture " + source.id + ": " + e.getMessage());
+                        }
+                    }
+                }
+                int rows = records.size();
+                if (rows == 0) {
+                    readNanos += System.nanoTime() - t0;
+                    break;
+                }
+                for (int i = 0; i < rows; i++) {
+                    impliedProbabilities(records.get(i), implied[i]);
+                }
+
+                long t1 = System.nanoTime();
+                double[][][] features = new double[featureSets.length][][];
+                for (int f = 0; f < featureSets.length; f++) {
+                    features[f] = buildFeatures(featureSets[f], records);
+                }
+
+                long t2 = System.nanoTime();
+                for (int m = 0; m < models.size(); m++) {
+                    double[][] x = features[modelFeatureSet[m]];
+                    scored[m] = null;
+                    if (x == null) {
+                        failures[m]++;
+                        continue;
+                    }
+                    if (probabilities[m] == null) {
+                        probabilities[m] = new double[chunkSize][models.get(m).numClasses()];
+                    }
+                    try {
+                        models.get(m).predictProbaBatch(x, probabilities[m], true);
+                        scored[m] = probabilities[m];
+                    } catch (RuntimeException e) {
+                        if (failures[m]++ == 0) {
+                            System.err.println("Model " + modelTypes[m] + " on " + modelFeatureSets[m]
+                                    + " failed: " + e.getMessage());
+                        }
+                    }
+                }
+
+                long t3 = System.nanoTime();
+                writer.write(ids, implied, scored, rows);
+                long t4 = System.nanoTime();
+
+                fixtures += rows;
+                chunks++;
+                readNanos += t1 - t0;
+                featureNanos += t2 - t1;
+                scoreNanos += t3 - t2;
+                writeNanos += t4 - t3;
+            }
+
+            predictions = writer.getRowsWritten();
+        }
+
+        for (int m = 0; m < models.size(); m++) {
+            if (failures[m] > 0) {
+                System.err.println("Model " + modelTypes[m] + " on " + modelFeatureSets[m] + " skipped "
+                        + failures[m] + " of " + chunks + " chunks");
+            }
+        }
+        if (rejected > MAX_REPORTED_ERRORS) {
+            System.err.println("... " + (rejected - MAX_REPORTED_ERRORS) + " more fixtures skipped");
+        }
+        return new Summary(fixtures, rejected, predictions, chunks,
+                readNanos, featureNanos, scoreNanos, writeNanos, System.nanoTime() - start);
+    }
+
+    /**
+     * Normalized features of the chunk for one feature set, or null if they cannot be built.
+     */
+    private double[][] buildFeatures(String featureSet, List<MatchRecord> records) {
+        try {
+            double[][] x = FeatureSet.fromName(featureSet).build(records);
+            FeatureNormalizer.MinMax minMax = normalization.get(featureSet);
+            if (minMax != null) {
+                IntStream.range(0, x.length).parallel().forEach(i ->
+                        x[i] = FeatureNormalizer.normalizeSingle(x[i], minMax.getMin(), minMax.getMax()));
+            }
+            return x;
+        } catch (RuntimeException e) {
+            System.err.println("Failed to build " + featureSet + " features: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Bookmaker probabilities implied by the decimal odds, with the overround removed so they sum to 1.
+     */
+    static void impliedProbabilities(MatchRecord record, double[] out) {
+        out[0] = 1.0 / record.getHomeOdds();
+        out[1] = 1.0 / record.getDrawOdds();
+        out[2] = 1.0 / record.getAwayOdds();
+        double book = out[0] + out[1] + out[2];
+        for (int k = 0; k < 3; k++) {
+            out[k] /= book;
+        }
+    }
+
+    private static FixtureSource open(String inputPath, String table) throws IOException, SQLException {
+        if (inputPath.toLowerCase().endsWith(".csv")) {
+            return new CsvFixtureSource(inputPath);
+        }
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid fixture table name: " + table);
+        }
+        return new SqliteFixtureSource(inputPath, table);
+    }
+
+    /**
+     * Cursor over input rows; {@link #next} fills {@link #values} in {@link FixtureFields#NAMES}
+     * order (NaN where a field is absent or not a number) and {@link #id}.
+     */
+    private abstract static class FixtureSource implements AutoCloseable {
+        final double[] values = new double[FixtureFields.NAMES.length];
+        long id;
+        long row;
+
+        abstract boolean next() throws IOException, SQLException;
+
+        @Override
+        public abstract void close() throws IOException, SQLException;
+    }
+
+    private static final class CsvFixtureSource extends FixtureSource {
+        private final BufferedReader reader;
+        // Input column of each fixture field, or -1
+        private final int[] columns = new int[FixtureFields.NAMES.length];
+        private final int idColumn;
+
+        CsvFixtureSource(String path) throws IOException {
+            this.reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8);
+            String header = reader.readLine();
+            if (header == null) {
+                reader.close();
+                throw new IOException("Empty fixture file: " + path);
+            }
+            String[] names = header.split(",", -1);
+            Arrays.fill(columns, -1);
+            int id = -1;
+            for (int c = 0; c < names.length; c++) {
+                int field = FixtureFields.indexOf(names[c]);
+                if (field >= 0) {
+                    columns[field] = c;
+                } else if (names[c].trim().equalsIgnoreCase(ID_COLUMN)) {
+                    id = c;
+                }
+            }
+            this.idColumn = id;
+        }
+
+        @Override
+        boolean next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return false;
+                }
+            } while (line.isBlank());
+            row++;
+            String[] cells = line.split(",", -1);
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = columns[i] >= 0 && columns[i] < cells.length ? parse(cells[columns[i]]) : Double.NaN;
+            }
+            id = row;
+            if (idColumn >= 0 && idColumn < cells.length) {
+                try {
+                    id = Long.parseLong(cells[idColumn].trim());
+                } catch (NumberFormatException e) {
+                    // Keep the row number
+                }
+            }
+            return true;
+        }
+
+        private static double parse(String cell) {
+            String value = cell.trim();
+            if (value.isEmpty()) {
+                return Double.NaN;
+            }
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class SqliteFixtureSource extends FixtureSource {
+        private final Connection connection;
+        private final Statement statement;
+        private final ResultSet rs;
+        // JDBC column of each fixture field, or 0
+        private final int[] columns = new int[FixtureFields.NAMES.length];
+        private final int idColumn;
+
+        SqliteFixtureSource(String path, String table) throws SQLException {
+            this.connection = DriverManager.getConnection("jdbc:sqlite:" + path);
+            try {
+                this.statement = connection.createStatement();
+                statement.setFetchSize(DEFAULT_CHUNK_SIZE);
+                this.rs = statement.executeQuery("SELECT * FROM \"" + table + "\"");
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+            ResultSetMetaData meta = rs.getMetaData();
+            int id = 0;
+            for (int c = 1; c <= meta.getColumnCount(); c++) {
+                String name = meta.getColumnLabel(c);
+                int field = FixtureFields.indexOf(name);
+                if (field >= 0) {
+                    columns[field] = c;
+                } else if (name.equalsIgnoreCase(ID_COLUMN)) {
+                    id = c;
+                }
+            }
+            this.idColumn = id;
+        }
+
+        @Override
+        boolean next() throws SQLException {
+            if (!rs.next()) {
+                return false;
+            }
+            row++;
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = Double.NaN;
+                if (columns[i] > 0) {
+                    Object value = rs.getObject(columns[i]);
+                    if (value instanceof Number) {
+                        values[i] = ((Number) value).doubleValue();
+                    }
+                }
+            }
+            id = row;
+            if (idColumn > 0) {
+                long value = rs.getLong(idColumn);
+                if (!rs.wasNull()) {
+                    id = value;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+}
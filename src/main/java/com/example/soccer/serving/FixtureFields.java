@@ -0,0 +1,71 @@
+package com.example.soccer.serving;
+
+import com.example.soccer.db.MatchRecord;
+
+/**
+ * Named fields of a fixture to score, shared by the HTTP service (JSON fields) and the batch
+ * scorer (CSV columns or SQLite table columns). The odds and the six attributes of each team are
+ * required; recent form is optional and defaults like the interactive prompts.
+ */
+final class FixtureFields {
+    /** Every field, in the order of the values passed to {@link #toMatch}. */
+    static final String[] NAMES = {
+            "homeOdds", "drawOdds", "awayOdds",
+            "homeOverall", "homeAggression", "homePassing", "homeShooting", "homeDefence", "homeBuildUpSpeed",
+            "awayOverall", "awayAggression", "awayPassing", "awayShooting", "awayDefence", "awayBuildUpSpeed",
+            "homeGoalsFor", "homeGoalsAgainst", "homeWinRate",
+            "awayGoalsFor", "awayGoalsAgainst", "awayWinRate"
+    };
+
+    private static final int ODDS = 3;
+    private static final int REQUIRED = 15;
+    private static final double DEFAULT_FORM_GOALS = 1.4;
+    private static final double DEFAULT_FORM_WIN_RATE = 0.33;
+
+    private FixtureFields() {
+    }
+
+    /**
+     * Build a record with unknown outcome from field values in {@link #NAMES} order, NaN marking an absent field.
+     *
+     * @throws IllegalArgumentException if a required field is absent or an odds value is not above 1
+     */
+    static MatchRecord toMatch(double[] values) {
+        for (int i = 0; i < REQUIRED; i++) {
+            if (Double.isNaN(values[i])) {
+                throw new IllegalArgumentException("Missing or non-numeric field: " + NAMES[i]);
+            }
+            if (i < ODDS && !(values[i] > 1.0)) {
+                throw new IllegalArgumentException("Decimal odds must be greater than 1: " + NAMES[i]);
+            }
+        }
+        double homeGoalsFor = optional(values[15], DEFAULT_FORM_GOALS);
+        double homeGoalsAgainst = optional(values[16], DEFAULT_FORM_GOALS);
+        double awayGoalsFor = optional(values[18], DEFAULT_FORM_GOALS);
+        double awayGoalsAgainst = optional(values[19], DEFAULT_FORM_GOALS);
+        return new MatchRecord(0, // outcome unknown
+                values[0], values[1], values[2],
+                values[3], values[4], values[5], values[6], values[7], values[8],
+                homeGoalsFor, homeGoalsAgainst, homeGoalsFor - homeGoalsAgainst,
+                optional(values[17], DEFAULT_FORM_WIN_RATE),
+                values[9], values[10], values[11], values[12], values[13], values[14],
+                awayGoalsFor, awayGoalsAgainst, awayGoalsFor - awayGoalsAgainst,
+                optional(values[20], DEFAULT_FORM_WIN_RATE));
+    }
+
+    /**
+     * Index of a field in {@link #NAMES}, ignoring case, or -1.
+     */
+    static int indexOf(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equalsIgnoreCase(name.trim())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static double optional(double value, double defaultValue) {
+        return Double.isNaN(value) ? defaultValue : value;
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.soccer.serving;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader and writer helpers for the prediction endpoints. Objects parse to
+ * {@code Map<String, Object>}, arrays to {@code List<Object>}, numbers to {@code Double},
+ * plus {@code String}, {@code Boolean} and {@code null}. Nesting is limited to {@value #MAX_DEPTH}
+ * levels, so hostile input fails with a parse error instead of exhausting the stack.
+ */
+final class Json {
+    static final int MAX_DEPTH = 32;
+
+    private final String text;
+    private int pos;
+    private int depth;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    static Object parse(String text) {
+        Json json = new Json(text);
+        json.skipWhitespace();
+        Object value = json.readValue();
+        json.skipWhitespace();
+        if (json.pos != text.length()) {
+            throw json.error("Unexpected trailing content");
+        }
+        return value;
+    }
+
+    /**
+     * Append {@code value} as a JSON string literal.
+     */
+    static StringBuilder quote(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"');
+    }
+
+    /**
+     * Append a number; NaN and infinities, which JSON cannot represent, become null.
+     */
+    static StringBuilder number(StringBuilder out, double value) {
+        return Double.isFinite(value) ? out.append(value) : out.append("null");
+    }
+
+    private Object readValue() {
+        if (pos >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        char c = text.charAt(pos);
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                expect("true");
+                return Boolean.TRUE;
+            case 'f':
+                expect("false");
+                return Boolean.FALSE;
+            case 'n':
+                expect("null");
+                return null;
+            default:
+                return readNumber();
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        enter();
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            depth--;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Expected a field name");
+            }
+            String key = readString();
+            skipWhitespace();
+            consume(':');
+            skipWhitespace();
+            object.put(key, readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                pos++;
+            } else {
+                consume('}');
+                depth--;
+                return object;
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        enter();
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            depth--;
+            return array;
+        }
+        while (true) {
+            skipWhitespace();
+            array.add(readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                pos++;
+            } else {
+                consume(']');
+                depth--;
+                return array;
+            }
+        }
+    }
+
+    // Step over the opening bracket of an object or array
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw error("Nesting deeper than " + MAX_DEPTH + " levels");
+        }
+        pos++;
+    }
+
+    private String readString() {
+        pos++;
+        StringBuilder out = new StringBuilder();
+        while (true) {
+            if (pos >= text.length()) {
+                throw error("Unterminated string");
+            }
+            char c = text.charAt(pos++);
+            if (c == '"') {
+                return out.toString();
+            }
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            if (pos >= text.length()) {
+                throw error("Unterminated escape");
+            }
+            char escaped = text.charAt(pos++);
+            switch (escaped) {
+                case 'b':
+                    out.append('\b');
+                    break;
+                case 'f':
+                    out.append('\f');
+                    break;
+                case 'n':
+                    out.append('\n');
+                    break;
+                case 'r':
+                    out.append('\r');
+                    break;
+                case 't':
+                    out.append('\t');
+                    break;
+                case 'u':
+                    if (pos + 4 > text.length()) {
+                        throw error("Truncated unicode escape");
+                    }
+                    try {
+                        out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    out.append(escaped);
+            }
+        }
+    }
+
+    private Double readNumber() {
+        int start = pos;
+        while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+            pos++;
+        }
+        if (start == pos) {
+            throw error("Unexpected character '" + text.charAt(pos) + "'");
+        }
+        try {
+            return Double.parseDouble(text.substring(start, pos));
+        } catch (NumberFormatException e) {
+            throw error("Invalid number");
+        }
+    }
+
+    private void expect(String literal) {
+        if (!text.startsWith(literal, pos)) {
+            throw error("Expected " + literal);
+        }
+        pos += literal.length();
+    }
+
+    private void consume(char c) {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    private char peek() {
+        if (pos >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        return text.charAt(pos);
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at offset " + pos);
+    }
+}
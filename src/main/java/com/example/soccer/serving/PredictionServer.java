@@ -0,0 +1,323 @@
+package com.example.soccer.serving;
+
+import com.example.soccer.db.MatchRecord;
+import com.example.soccer.model.PredictionCache;
+import com.example.soccer.model.TrainedModel;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * JSON prediction endpoints on the JDK's built-in {@link HttpServer}:
+ * <ul>
+ *   <li>{@code POST /predict} one fixture, answered by every model</li>
+ *   <li>{@code POST /predict/batch} {@code {"matches": [...]}}, up to {@value #MAX_BATCH_SIZE} fixtures</li>
+ *   <li>{@code GET /models} the loaded models and their test accuracy</li>
+ *   <li>{@code GET /health} and {@code GET /metrics}</li>
+ * </ul>
+ * A fixture has the fields of interactive mode: {@code homeOdds, drawOdds, awayOdds}, the six
+ * {@code home*} and {@code away*} attributes ({@code Overall, Aggression, Passing, Shooting, Defence,
+ * BuildUpSpeed}) and optionally {@code homeGoalsFor, homeGoalsAgainst, homeWinRate} and their away
+ * counterparts, which default like the interactive prompts. Each request runs on its own virtual thread
+ * when the JDK has them (21+), otherwise on a fixed pool.
+ */
+public final class PredictionServer {
+    private static final int MAX_BODY_BYTES = 16 << 20;
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int FALLBACK_THREADS = Math.max(8, 4 * Runtime.getRuntime().availableProcessors());
+    private static final String[] ENDPOINTS = {"predict", "batch", "models", "health", "metrics"};
+
+    private final PredictionService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String executorName;
+    private final long startedAt = System.nanoTime();
+    private final Map<String, LongAdder> requests = new LinkedHashMap<>();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder fixtures = new LongAdder();
+    private final LongAdder predictions = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+
+    public PredictionServer(PredictionService service, int port) throws IOException {
+        this.service = service;
+        for (String endpoint : ENDPOINTS) {
+            requests.put(endpoint, new LongAdder());
+        }
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.executor = virtual != null ? virtual : Executors.newFixedThreadPool(FALLBACK_THREADS);
+        this.executorName = virtual != null ? "virtual threads" : "fixed pool of " + FALLBACK_THREADS + " threads";
+
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        server.createContext("/predict/batch", exchange -> handle(exchange, "batch", "POST", this::predictBatch));
+        server.createContext("/predict", exchange -> handle(exchange, "predict", "POST", this::predictOne));
+        server.createContext("/models", exchange -> handle(exchange, "models", "GET", body -> models()));
+        server.createContext("/health", exchange -> handle(exchange, "health", "GET", body -> health()));
+        server.createContext("/metrics", exchange -> handle(exchange, "metrics", "GET", body -> metrics()));
+    }
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} looked up reflectively, so the project still
+     * builds for Java 17; null where virtual threads are missing or still a disabled preview.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("Prediction service listening on port " + getPort() + " (" + executorName + ", "
+                + service.getModels().size() + " models)");
+    }
+
+    /**
+     * Stop accepting requests, give running ones up to {@code delaySeconds} to finish, and release the threads.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange, String endpoint, String method,
+                        Function<String, String> handler) throws IOException {
+        long start = System.nanoTime();
+        inFlight.incrementAndGet();
+        requests.get(endpoint).increment();
+        // Stays 500 if anything escapes, errors included
+        int status = 500;
+        try {
+            String response;
+            try {
+                if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+                    status = 405;
+                    response = error("Use " + method + " for this endpoint");
+                    exchange.getResponseHeaders().set("Allow", method);
+                } else {
+                    response = handler.apply(method.equals("POST") ? readBody(exchange) : null);
+                    status = 200;
+                }
+            } catch (IllegalArgumentException e) {
+                status = 400;
+                response = error(e.getMessage());
+            } catch (Exception e) {
+                status = 500;
+                response = error("Internal error: " + e.getMessage());
+            }
+
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            if (status >= 500) {
+                serverErrors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            }
+            exchange.close();
+            long elapsed = System.nanoTime() - start;
+            latencyNanos.add(elapsed);
+            maxLatencyNanos.accumulateAndGet(elapsed, Math::max);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = exchange.getRequestBody()) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                body.write(buffer, 0, n);
+                if (body.size() > MAX_BODY_BYTES) {
+                    throw new IllegalArgumentException("Request body larger than " + MAX_BODY_BYTES + " bytes");
+                }
+            }
+        }
+        return body.toString(StandardCharsets.UTF_8);
+    }
+
+    private String predictOne(String body) {
+        MatchRecord match = toMatch(asObject(Json.parse(body), "request body"));
+        List<PredictionService.ModelPrediction> result = service.predict(match);
+        fixtures.increment();
+        predictions.add(result.size());
+        StringBuilder out = new StringBuilder(128 + 192 * result.size());
+        out.append("{\"predictions\":");
+        appendPredictions(out, result);
+        return out.append('}').toString();
+    }
+
+    private String predictBatch(String body) {
+        Object matches = asObject(Json.parse(body), "request body").get("matches");
+        if (!(matches instanceof List)) {
+            throw new IllegalArgumentException("Expected {\"matches\": [...]}");
+        }
+        List<?> items = (List<?>) matches;
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " matches per batch, got " + items.size());
+        }
+        List<MatchRecord> records = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            records.add(toMatch(asObject(items.get(i), "matches[" + i + "]")));
+        }
+
+        List<List<PredictionService.ModelPrediction>> results = service.predictBatch(records);
+        fixtures.add(records.size());
+        StringBuilder out = new StringBuilder(64 + 192 * Math.max(1, records.size() * service.getModels().size()));
+        out.append("{\"results\":[");
+        for (int i = 0; i < results.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            predictions.add(results.get(i).size());
+            out.append("{\"predictions\":");
+            appendPredictions(out, results.get(i));
+            out.append('}');
+        }
+        return out.append("]}").toString();
+    }
+
+    private static void appendPredictions(StringBuilder out, List<PredictionService.ModelPrediction> predictions) {
+        out.append('[');
+        for (int i = 0; i < predictions.size(); i++) {
+            PredictionService.ModelPrediction p = predictions.get(i);
+            double[] probabilities = p.getProbabilities();
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append("{\"modelType\":");
+            Json.quote(out, p.getModelType()).append(",\"featureSet\":");
+            Json.quote(out, p.getFeatureSet()).append(",\"label\":").append(p.getLabel()).append(",\"outcome\":");
+            Json.quote(out, p.getOutcome()).append(",\"probabilities\":{\"home\":");
+            Json.number(out, probabilities[0]).append(",\"draw\":");
+            Json.number(out, probabilities[1]).append(",\"away\":");
+            Json.number(out, probabilities[2]).append("}}");
+        }
+        out.append(']');
+    }
+
+    private String models() {
+        StringBuilder out = new StringBuilder("{\"models\":[");
+        List<TrainedModel> models = service.getModels();
+        for (int i = 0; i < models.size(); i++) {
+            TrainedModel model = models.get(i);
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append("{\"modelType\":");
+            Json.quote(out, model.getModelType()).append(",\"featureSet\":");
+            Json.quote(out, model.getFeatureSetName()).append(",\"accuracy\":");
+            Json.number(out, model.getMetrics().getAccuracy()).append('}');
+        }
+        return out.append("]}").toString();
+    }
+
+    private String health() {
+        int models = service.getModels().size();
+        StringBuilder out = new StringBuilder("{\"status\":");
+        Json.quote(out, models > 0 ? "UP" : "NO_MODELS");
+        return out.append(",\"models\":").append(models)
+                .append(",\"uptimeSeconds\":").append((System.nanoTime() - startedAt) / 1_000_000_000L)
+                .append('}').toString();
+    }
+
+    private String metrics() {
+        long total = 0;
+        StringBuilder out = new StringBuilder(512);
+        out.append("{\"uptimeSeconds\":").append((System.nanoTime() - startedAt) / 1e9);
+        out.append(",\"executor\":");
+        Json.quote(out, executorName);
+        out.append(",\"models\":").append(service.getModels().size());
+        out.append(",\"requests\":{");
+        boolean first = true;
+        for (Map.Entry<String, LongAdder> entry : requests.entrySet()) {
+            long count = entry.getValue().sum();
+            total += count;
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            Json.quote(out, entry.getKey()).append(':').append(count);
+        }
+        out.append("},\"inFlight\":").append(inFlight.get());
+        out.append(",\"clientErrors\":").append(clientErrors.sum());
+        out.append(",\"serverErrors\":").append(serverErrors.sum());
+        out.append(",\"fixtures\":").append(fixtures.sum());
+        out.append(",\"predictions\":").append(predictions.sum());
+        out.append(",\"latencyMillis\":{\"mean\":");
+        Json.number(out, total == 0 ? 0.0 : latencyNanos.sum() / 1e6 / total);
+        out.append(",\"max\":").append(maxLatencyNanos.get() / 1e6).append('}');
+
+        PredictionCache cache = service.getCache();
+        out.append(",\"cache\":{\"size\":").append(cache.size())
+                .append(",\"hits\":").append(cache.getHits())
+                .append(",\"misses\":").append(cache.getMisses())
+                .append(",\"evictions\":").append(cache.getEvictions())
+                .append(",\"hitRate\":");
+        Json.number(out, cache.getHitRate());
+        return out.append("}}").toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asObject(Object value, String what) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Expected a JSON object for " + what);
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static MatchRecord toMatch(Map<String, Object> fields) {
+        double[] values = new double[FixtureFields.NAMES.length];
+        for (int i = 0; i < values.length; i++) {
+            Object value = fields.get(FixtureFields.NAMES[i]);
+            if (value != null && !(value instanceof Double)) {
+                throw new IllegalArgumentException("Missing or non-numeric field: " + FixtureFields.NAMES[i]);
+            }
+            values[i] = value == null ? Double.NaN : (Double) value;
+        }
+        return FixtureFields.toMatch(values);
+    }
+
+    private static String error(String message) {
+        StringBuilder out = new StringBuilder("{\"error\":");
+        Json.quote(out, message == null ? "unknown" : message);
+        return out.append('}').toString();
+    }
+}
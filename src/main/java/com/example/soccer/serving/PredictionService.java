@@ -0,0 +1,155 @@
+package com.example.soccer.serving;
+
+import com.example.soccer.db.MatchRecord;
+import com.example.soccer.feature.FeatureNormalizer;
+import com.example.soccer.feature.FeatureSet;
+import com.example.soccer.model.PredictionCache;
+import com.example.soccer.model.TrainedModel;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Scores fixtures with every loaded model. Features are built and normalized once per
+ * (fixture, feature set) and shared by all models on that set; the (fixture, model) pairs of a
+ * request are then evaluated in parallel through the {@link PredictionCache}. Thread-safe.
+ */
+public final class PredictionService {
+    private static final String[] OUTCOMES = {"Home Win", "Draw", "Away Win"};
+
+    private final List<TrainedModel> models;
+    private final Map<String, FeatureNormalizer.MinMax> normalization;
+    private final PredictionCache cache;
+    private final String[] featureSets;
+    // Index into featureSets of each model's feature set
+    private final int[] modelFeatureSet;
+
+    /**
+     * One model's answer for one fixture.
+     */
+    public static final class ModelPrediction {
+        private final String modelType;
+        private final String featureSet;
+        private final int label;
+        private final double[] probabilities;
+
+        ModelPrediction(String modelType, String featureSet, int label, double[] probabilities) {
+            this.modelType = modelType;
+            this.featureSet = featureSet;
+            this.label = label;
+            this.probabilities = probabilities;
+        }
+
+        public String getModelType() {
+            return modelType;
+        }
+
+        public String getFeatureSet() {
+            return featureSet;
+        }
+
+        /** 0 = home win, 1 = draw, 2 = away win. */
+        public int getLabel() {
+            return label;
+        }
+
+        public String getOutcome() {
+            return OUTCOMES[label];
+        }
+
+        /** Home win, draw and away win probabilities. */
+        public double[] getProbabilities() {
+            return probabilities;
+        }
+    }
+
+    public PredictionService(List<TrainedModel> models, Map<String, FeatureNormalizer.MinMax> normalization,
+                             PredictionCache cache) {
+        this.models = new ArrayList<>(models);
+        this.normalization = normalization;
+        this.cache = cache;
+        Set<String> names = new LinkedHashSet<>();
+        for (TrainedModel model : this.models) {
+            names.add(model.getFeatureSetName());
+        }
+        this.featureSets = names.toArray(new String[0]);
+        this.modelFeatureSet = new int[this.models.size()];
+        List<String> nameList = List.of(featureSets);
+        for (int m = 0; m < modelFeatureSet.length; m++) {
+            modelFeatureSet[m] = nameList.indexOf(this.models.get(m).getFeatureSetName());
+        }
+    }
+
+    public List<TrainedModel> getModels() {
+        return models;
+    }
+
+    public PredictionCache getCache() {
+        return cache;
+    }
+
+    public List<ModelPrediction> predict(MatchRecord match) {
+        return predictBatch(List.of(match)).get(0);
+    }
+
+    /**
+     * Predictions of every model for every fixture, in input order. A model that cannot score a
+     * fixture is left out of that fixture's list, as in interactive mode.
+     */
+    public List<List<ModelPrediction>> predictBatch(List<MatchRecord> matches) {
+        int rows = matches.size();
+        int modelCount = models.size();
+        double[][][] features = new double[rows][featureSets.length][];
+        IntStream.range(0, rows).parallel().forEach(row -> {
+            for (int f = 0; f < featureSets.length; f++) {
+                features[row][f] = buildFeatures(featureSets[f], matches.get(row));
+            }
+        });
+
+        ModelPrediction[][] results = new ModelPrediction[rows][modelCount];
+        IntStream.range(0, rows * modelCount).parallel().forEach(task -> {
+            int row = task / modelCount;
+            int m = task % modelCount;
+            double[] x = features[row][modelFeatureSet[m]];
+            if (x != null) {
+                results[row][m] = score(models.get(m), x);
+            }
+        });
+
+        List<List<ModelPrediction>> predictions = new ArrayList<>(rows);
+        for (ModelPrediction[] row : results) {
+            List<ModelPrediction> list = new ArrayList<>(modelCount);
+            for (ModelPrediction prediction : row) {
+                if (prediction != null) {
+                    list.add(prediction);
+                }
+            }
+            predictions.add(list);
+        }
+        return predictions;
+    }
+
+    private double[] buildFeatures(String featureSet, MatchRecord match) {
+        try {
+            double[] x = FeatureSet.fromName(featureSet).buildSingle(match);
+            FeatureNormalizer.MinMax minMax = normalization.get(featureSet);
+            return minMax == null ? x : FeatureNormalizer.normalizeSingle(x, minMax.getMin(), minMax.getMax());
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private ModelPrediction score(TrainedModel model, double[] x) {
+        try {
+            double[] probabilities = new double[model.numClasses()];
+            int label = cache.predict(model, x, probabilities);
+            return new ModelPrediction(model.getModelType(), model.getFeatureSetName(), label, probabilities);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.soccer.weka;
+
+import weka.classifiers.AbstractClassifier;
+import weka.classifiers.Classifier;
+import weka.classifiers.ParallelIteratedSingleClassifierEnhancer;
+import weka.classifiers.evaluation.AggregateableEvaluation;
+import weka.classifiers.evaluation.Evaluation;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * k-fold cross-validation of one or more Weka classifiers with the folds trained concurrently.
+ * Folds are cut exactly as {@code Evaluation.crossValidateModel} cuts them (same randomization,
+ * stratification and per-fold shuffling), each fold trains its own copy of the classifier,
+ * and the per-fold evaluations are aggregated, so the results match the sequential run.
+ */
+public final class WekaCrossValidator {
+
+    private WekaCrossValidator() {
+    }
+
+    /**
+     * Outcome of cross-validating one classifier.
+     */
+    public static final class Result {
+        private final String name;
+        private final Evaluation evaluation;
+        private final double wallSeconds;
+        private final double foldSeconds;
+
+        Result(String name, Evaluation evaluation, double wallSeconds, double foldSeconds) {
+            this.name = name;
+            this.evaluation = evaluation;
+            this.wallSeconds = wallSeconds;
+            this.foldSeconds = foldSeconds;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Evaluation getEvaluation() {
+            return evaluation;
+        }
+
+        /** Time from the start of the run until this classifier's last fold finished. */
+        public double getWallSeconds() {
+            return wallSeconds;
+        }
+
+        /** Sum of the individual fold train + test times. */
+        public double getFoldSeconds() {
+            return foldSeconds;
+        }
+    }
+
+    public static Result crossValidate(Classifier classifier, Instances data, int folds, long seed)
+            throws Exception {
+        List<Classifier> classifiers = new ArrayList<>();
+        classifiers.add(classifier);
+        return crossValidate(classifiers, data, folds, seed, Runtime.getRuntime().availableProcessors()).get(0);
+    }
+
+    /**
+     * Cross-validate every classifier on the same folds, running all (classifier, fold) pairs
+     * on a pool of {@code threads} workers.
+     */
+    public static List<Result> crossValidate(List<Classifier> classifiers, Instances data, int folds, long seed,
+                                             int threads) throws Exception {
+        // Cut the folds up front, consuming the random stream in crossValidateModel's order
+        Instances randomized = new Instances(data);
+        Random random = new Random(seed);
+        randomized.randomize(random);
+        if (randomized.classAttribute().isNominal()) {
+            randomized.stratify(folds);
+        }
+        Instances[] trainFolds = new Instances[folds];
+        Instances[] testFolds = new Instances[folds];
+        for (int k = 0; k < folds; k++) {
+            trainFolds[k] = randomized.trainCV(folds, k, random);
+            testFolds[k] = randomized.testCV(folds, k);
+        }
+
+        // Forests parallelize internally too; split the cores between concurrent folds and their trees
+        int concurrent = Math.min(threads, classifiers.size() * folds);
+        int slotsPerForest = Math.max(1, Runtime.getRuntime().availableProcessors() / concurrent);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<List<Future<long[]>>> timings = new ArrayList<>();
+            Evaluation[][] foldEvaluations = new Evaluation[classifiers.size()][folds];
+            for (int c = 0; c < classifiers.size(); c++) {
+                List<Future<long[]>> classifierTasks = new ArrayList<>();
+                for (int k = 0; k < folds; k++) {
+                    Classifier copy = AbstractClassifier.makeCopy(classifiers.get(c));
+                    if (copy instanceof ParallelIteratedSingleClassifierEnhancer) {
+                        ((ParallelIteratedSingleClassifierEnhancer) copy).setNumExecutionSlots(slotsPerForest);
+                    }
+                    Instances train = trainFolds[k];
+                    Instances test = testFolds[k];
+                    Evaluation[] slot = foldEvaluations[c];
+                    int fold = k;
+                    classifierTasks.add(pool.submit(() -> {
+                        long foldStart = System.nanoTime();
+                        copy.buildClassifier(train);
+                        Evaluation evaluation = new Evaluation(train);
+                        evaluation.evaluateModel(copy, test);
+                        slot[fold] = evaluation;
+                        long end = System.nanoTime();
+                        return new long[]{end - foldStart, end};
+                    }));
+                }
+                timings.add(classifierTasks);
+            }
+
+            List<Result> results = new ArrayList<>();
+            for (int c = 0; c < classifiers.size(); c++) {
+                long foldNanos = 0;
+                long lastEnd = start;
+                for (Future<long[]> task : timings.get(c)) {
+                    long[] timing = task.get();
+                    foldNanos += timing[0];
+                    lastEnd = Math.max(lastEnd, timing[1]);
+                }
+                AggregateableEvaluation total = new AggregateableEvaluation(data);
+                for (Evaluation evaluation : foldEvaluations[c]) {
+                    total.aggregate(evaluation);
+                }
+                total.finalizeAggregation();
+                results.add(new Result(classifiers.get(c).getClass().getSimpleName(), total,
+                        (lastEnd - start) / 1e9, foldNanos / 1e9));
+            }
+            return results;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
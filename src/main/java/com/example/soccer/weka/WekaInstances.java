@@ -0,0 +1,64 @@
+package com.example.soccer.weka;
+
+import com.example.soccer.db.MatchRecord;
+import com.example.soccer.feature.FeatureBuilder;
+import com.example.soccer.feature.FeatureSet;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds Weka {@link Instances} straight from feature matrices, with the same layout
+ * as the ARFF export: numeric attributes x0..x(d-1) followed by the nominal class.
+ */
+public final class WekaInstances {
+    public static final List<String> CLASS_VALUES = Arrays.asList("home", "draw", "away");
+
+    private WekaInstances() {
+    }
+
+    /**
+     * Empty data set with {@code numFeatures} numeric attributes and the outcome class last.
+     * Data sets created from it with {@link #toInstances} share its attribute objects.
+     */
+    public static Instances header(String relation, int numFeatures) {
+        ArrayList<Attribute> attributes = new ArrayList<>(numFeatures + 1);
+        for (int i = 0; i < numFeatures; i++) {
+            attributes.add(new Attribute("x" + i));
+        }
+        attributes.add(new Attribute("class", CLASS_VALUES));
+        Instances header = new Instances(relation, attributes, 0);
+        header.setClassIndex(numFeatures);
+        return header;
+    }
+
+    /**
+     * Fill a copy of {@code header} with one instance per row of {@code x}.
+     */
+    public static Instances toInstances(Instances header, double[][] x, int[] y) {
+        int numFeatures = header.numAttributes() - 1;
+        Instances data = new Instances(header, x.length);
+        for (int i = 0; i < x.length; i++) {
+            double[] values = Arrays.copyOf(x[i], numFeatures + 1);
+            values[numFeatures] = y[i];
+            data.add(new DenseInstance(1.0, values));
+        }
+        return data;
+    }
+
+    /**
+     * Build the given feature set over {@code records} as a labelled Weka data set.
+     */
+    public static Instances fromFeatureSet(FeatureSet featureSet, List<MatchRecord> records) {
+        Instances header = header(relationName(featureSet), featureSet.getFeatureCount());
+        return toInstances(header, featureSet.build(records), FeatureBuilder.buildLabels(records));
+    }
+
+    static String relationName(FeatureSet featureSet) {
+        return "soccer_" + featureSet.getName().toLowerCase();
+    }
+}
@@ -1,41 +1,79 @@
 package com.example.soccer.weka;
 
+import weka.classifiers.Classifier;
+import weka.classifiers.bayes.NaiveBayes;
+import weka.classifiers.functions.Logistic;
+import weka.classifiers.functions.SMO;
+import weka.classifiers.trees.J48;
 import weka.classifiers.trees.RandomForest;
-import weka.core.Debug;
+import weka.classifiers.evaluation.Evaluation;
 import weka.core.Instances;
-import weka.core.converters.ConverterUtils;
-import weka.classifiers.Evaluation;
 
-import java.util.Random;
+import java.util.Arrays;
+import java.util.List;
 
 public final class WekaRunner {
+    private static final int FOLDS = 10;
+    private static final long CV_SEED = 1L;
 
     private WekaRunner() {
     }
 
-    public static void runRandomForestOnCombined(String arffPath) throws Exception {
+    /**
+     * 10-fold cross-validated RandomForest on an in-memory data set, e.g. from {@link WekaInstances}.
+     */
+    public static void runRandomForest(String featureSetName, Instances data) throws Exception {
+        RandomForest rf = new RandomForest();
+        // Use default parameters; can be tuned via options string if desired.
+
+        WekaCrossValidator.Result result = WekaCrossValidator.crossValidate(rf, data, FOLDS, CV_SEED);
+        printEvaluation("WEKA RANDOM FOREST (" + featureSetName + ", 10-fold CV)", result.getEvaluation());
+    }
+
+    /**
+     * The Weka classifiers compared by {@link #compareClassifiers}, with default parameters.
+     */
+    public static List<Classifier> defaultClassifiers() {
+        return Arrays.asList(new J48(), new NaiveBayes(), new SMO(), new Logistic(), new RandomForest());
+    }
+
+    /**
+     * Cross-validate several classifiers concurrently on the same folds and print one comparison table.
+     */
+    public static List<WekaCrossValidator.Result> compareClassifiers(String featureSetName, Instances data,
+                                                                     List<Classifier> classifiers) throws Exception {
         System.out.println();
         System.out.println("========================================");
-        System.out.println("WEKA RANDOM FOREST (Combined, 10-fold CV)");
+        System.out.println("WEKA CLASSIFIER COMPARISON (" + featureSetName + ", 10-fold CV)");
         System.out.println("========================================");
 
-        ConverterUtils.DataSource source = new ConverterUtils.DataSource(arffPath);
-        Instances data = source.getDataSet();
-        if (data.classIndex() == -1) {
-            data.setClassIndex(data.numAttributes() - 1);
-        }
-
-        RandomForest rf = new RandomForest();
-        // Use default parameters; can be tuned via options string if desired.
+        long start = System.nanoTime();
+        List<WekaCrossValidator.Result> results = WekaCrossValidator.crossValidate(classifiers, data, FOLDS,
+                CV_SEED, Runtime.getRuntime().availableProcessors());
+        double totalSeconds = (System.nanoTime() - start) / 1e9;
 
-        Evaluation eval = new Evaluation(data);
-        eval.crossValidateModel(rf, data, 10, new Debug.Random(1));
+        System.out.printf("%-15s %12s %10s %12s %12s%n", "Classifier", "Accuracy", "Kappa", "Wall (s)", "Fold sum (s)");
+        System.out.println("-------------------------------------------------------------------");
+        for (WekaCrossValidator.Result result : results) {
+            System.out.printf("%-15s %11.2f%% %10.4f %12.2f %12.2f%n",
+                    result.getName(),
+                    result.getEvaluation().pctCorrect(),
+                    result.getEvaluation().kappa(),
+                    result.getWallSeconds(),
+                    result.getFoldSeconds());
+        }
+        System.out.printf("Total wall time: %.2f s%n", totalSeconds);
+        return results;
+    }
 
+    public static void printEvaluation(String title, Evaluation eval) throws Exception {
+        System.out.println();
+        System.out.println("========================================");
+        System.out.println(title);
+        System.out.println("========================================");
         System.out.printf("Correctly Classified Instances: %.2f%%%n", eval.pctCorrect());
         System.out.println(eval.toSummaryString("\n=== Summary ===\n", false));
         System.out.println(eval.toClassDetailsString("\n=== Class Details ===\n"));
         System.out.println(eval.toMatrixString("\n=== Confusion Matrix ===\n"));
     }
 }
-
-
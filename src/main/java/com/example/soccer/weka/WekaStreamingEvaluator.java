@@ -0,0 +1,229 @@
+package com.example.soccer.weka;
+
+import com.example.soccer.db.MatchRecord;
+import com.example.soccer.db.MatchRepository;
+import com.example.soccer.feature.FeatureSet;
+import com.example.soccer.model.MetricsAccumulator;
+import weka.classifiers.Classifier;
+import weka.classifiers.UpdateableClassifier;
+import weka.classifiers.bayes.NaiveBayesUpdateable;
+import weka.classifiers.functions.SGD;
+import weka.classifiers.meta.MultiClassClassifierUpdateable;
+import weka.classifiers.trees.HoeffdingTree;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.SelectedTag;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Prequential (test-then-train) evaluation of Weka updateable classifiers over a streaming
+ * match scan. Each record is turned into one {@link Instance}, every classifier predicts it
+ * and is then updated with it, and nothing is kept afterwards, so memory stays constant
+ * however many matches are scanned.
+ */
+public final class WekaStreamingEvaluator {
+    private static final int RECENT_WINDOW = 1000;
+
+    private final FeatureSet featureSet;
+    private final Instances header;
+    private final List<Classifier> classifiers;
+    private final String[] names;
+    private final MetricsAccumulator[] totals;
+    private final boolean[][] recentCorrect;
+    private final int[] recentHits;
+    private final RunningScaler scaler;
+    private long seen;
+
+    public WekaStreamingEvaluator(FeatureSet featureSet, List<Classifier> classifiers) throws Exception {
+        this.featureSet = featureSet;
+        this.header = WekaInstances.header(WekaInstances.relationName(featureSet), featureSet.getFeatureCount());
+        this.classifiers = classifiers;
+        this.names = new String[classifiers.size()];
+        this.totals = new MetricsAccumulator[classifiers.size()];
+        this.recentCorrect = new boolean[classifiers.size()][RECENT_WINDOW];
+        this.recentHits = new int[classifiers.size()];
+        this.scaler = new RunningScaler(featureSet.getFeatureCount());
+        for (int c = 0; c < classifiers.size(); c++) {
+            Classifier classifier = classifiers.get(c);
+            if (!(classifier instanceof UpdateableClassifier)) {
+                throw new IllegalArgumentException(classifier.getClass().getSimpleName() + " is not updateable");
+            }
+            // Updateable classifiers start from the empty header and learn one instance at a time
+            classifier.buildClassifier(new Instances(header, 0));
+            names[c] = classifier instanceof MultiClassClassifierUpdateable
+                    ? ((MultiClassClassifierUpdateable) classifier).getClassifier().getClass().getSimpleName()
+                    : classifier.getClass().getSimpleName();
+            totals[c] = MetricsAccumulator.forOutcomes();
+        }
+    }
+
+    /**
+     * NaiveBayesUpdateable, HoeffdingTree and a log-loss SGD (one-vs-rest via
+     * MultiClassClassifierUpdateable), all with default parameters otherwise.
+     */
+    public static List<Classifier> defaultClassifiers() {
+        SGD sgd = new SGD();
+        sgd.setLossFunction(new SelectedTag(SGD.LOGLOSS, SGD.TAGS_SELECTION));
+        // Inputs are standardized on the fly, SGD cannot fit its own normalization on an empty header
+        sgd.setDontNormalize(true);
+        MultiClassClassifierUpdateable multiClass = new MultiClassClassifierUpdateable();
+        multiClass.setClassifier(sgd);
+        return Arrays.asList(new NaiveBayesUpdateable(), new HoeffdingTree(), multiClass);
+    }
+
+    /**
+     * Scan matches from the database and evaluate prequentially, printing a progress row
+     * every {@code reportInterval} matches.
+     *
+     * @param limit maximum number of matches, or a negative value for the full history
+     */
+    public static void run(MatchRepository repository, FeatureSet featureSet, int limit, int reportInterval)
+            throws Exception {
+        System.out.println();
+        System.out.println("========================================");
+        System.out.println("WEKA STREAMING (" + featureSet.getName() + ", prequential)");
+        System.out.println("========================================");
+
+        WekaStreamingEvaluator evaluator = new WekaStreamingEvaluator(featureSet, defaultClassifiers());
+        evaluator.printHeader();
+        long start = System.nanoTime();
+        try {
+            repository.streamMatches(limit, record -> {
+                try {
+                    evaluator.testThenTrain(record);
+                    if (evaluator.seen % reportInterval == 0) {
+                        evaluator.printProgress();
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (IllegalStateException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (SQLException e) {
+            throw new Exception("Streaming scan failed: " + e.getMessage(), e);
+        }
+        if (evaluator.seen % reportInterval != 0) {
+            evaluator.printProgress();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Streamed %d matches in %.1f s (%.0f matches/s)%n",
+                evaluator.seen, seconds, evaluator.seen / seconds);
+        evaluator.printSummary();
+    }
+
+    /**
+     * Predict the record with every classifier, score the predictions, then learn from it.
+     */
+    public void testThenTrain(MatchRecord record) throws Exception {
+        double[] features = featureSet.buildSingle(record);
+        Instance raw = toInstance(features, record.getOutcome());
+        Instance scaled = toInstance(scaler.transform(features), record.getOutcome());
+        int slot = (int) (seen % RECENT_WINDOW);
+
+        for (int c = 0; c < classifiers.size(); c++) {
+            Classifier classifier = classifiers.get(c);
+            Instance instance = classifier instanceof MultiClassClassifierUpdateable ? scaled : raw;
+            double[] probabilities = classifier.distributionForInstance(instance);
+            totals[c].add(record.getOutcome(), probabilities);
+            boolean correct = argMax(probabilities) == record.getOutcome();
+            if (seen >= RECENT_WINDOW && recentCorrect[c][slot]) {
+                recentHits[c]--;
+            }
+            recentCorrect[c][slot] = correct;
+            if (correct) {
+                recentHits[c]++;
+            }
+            ((UpdateableClassifier) classifier).updateClassifier(instance);
+        }
+        scaler.update(features);
+        seen++;
+    }
+
+    private Instance toInstance(double[] features, int outcome) {
+        double[] values = Arrays.copyOf(features, features.length + 1);
+        values[features.length] = outcome;
+        Instance instance = new DenseInstance(1.0, values);
+        instance.setDataset(header);
+        return instance;
+    }
+
+    private static int argMax(double[] probabilities) {
+        int best = 0;
+        for (int c = 1; c < probabilities.length; c++) {
+            if (probabilities[c] > probabilities[best]) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private void printHeader() {
+        StringBuilder line = new StringBuilder(String.format("%10s", "Matches"));
+        StringBuilder columns = new StringBuilder(String.format("%10s", ""));
+        for (String name : names) {
+            line.append(String.format(" %24s", name));
+            columns.append(String.format(" %14s %9s", "cumulative", "last " + RECENT_WINDOW));
+        }
+        System.out.println(line);
+        System.out.println(columns);
+    }
+
+    private void printProgress() {
+        StringBuilder line = new StringBuilder(String.format("%10d", seen));
+        int window = (int) Math.min(seen, RECENT_WINDOW);
+        for (int c = 0; c < classifiers.size(); c++) {
+            line.append(String.format(" %13.2f%% %8.2f%%",
+                    totals[c].getAccuracy() * 100, 100.0 * recentHits[c] / window));
+        }
+        System.out.println(line);
+    }
+
+    private void printSummary() {
+        for (int c = 0; c < classifiers.size(); c++) {
+            System.out.println("\n=== " + names[c] + " (prequential) ===");
+            totals[c].printProbabilistic();
+            totals[c].toMetrics().print();
+        }
+    }
+
+    public long getSeen() {
+        return seen;
+    }
+
+    /**
+     * Per-feature standardization from the running mean and variance (Welford) of the rows seen so far.
+     */
+    private static final class RunningScaler {
+        private final double[] mean;
+        private final double[] m2;
+        private long count;
+
+        RunningScaler(int numFeatures) {
+            this.mean = new double[numFeatures];
+            this.m2 = new double[numFeatures];
+        }
+
+        double[] transform(double[] features) {
+            double[] scaled = new double[features.length];
+            for (int j = 0; j < features.length; j++) {
+                double std = count > 1 ? Math.sqrt(m2[j] / (count - 1)) : 0.0;
+                scaled[j] = std > 0 ? (features[j] - mean[j]) / std : 0.0;
+            }
+            return scaled;
+        }
+
+        void update(double[] features) {
+            count++;
+            for (int j = 0; j < features.length; j++) {
+                double delta = features[j] - mean[j];
+                mean[j] += delta / count;
+                m2[j] += delta * (features[j] - mean[j]);
+            }
+        }
+    }
+}